@@ -0,0 +1,25 @@
+package com.curtisnewbie.module.ioc.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Specify the base packages to be scanned, it should be annotated on the main class that is passed to {@link
+ * com.curtisnewbie.module.ioc.context.ContextInitializer#initialize(Class)}
+ * <p>
+ * If the main class is not annotated, the package of the main class is used as the base package. An empty string
+ * {@code ""} means the whole classpath.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see com.curtisnewbie.module.ioc.config.PackageScoped
+ */
+@Documented
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = ElementType.TYPE)
+public @interface BasePackages {
+
+    /**
+     * Names of the base packages, the sub-packages are included as well
+     */
+    String[] value();
+}
@@ -0,0 +1,22 @@
+package com.curtisnewbie.module.ioc.annotations;
+
+/**
+ * Scope of bean
+ *
+ * @author yongjie.zhuang
+ * @see Scope
+ */
+public enum BeanScope {
+
+    /** A single instance is shared, it's the default scope */
+    SINGLETON,
+
+    /** A new instance is created for each lookup or injection */
+    PROTOTYPE,
+
+    /**
+     * Instances are borrowed from a bounded pool for each lookup or injection, a new one is created when the pool is
+     * empty, and they are returned to the pool by {@code BeanRegistry#releaseBean(Class, Object)}
+     */
+    POOLED
+}
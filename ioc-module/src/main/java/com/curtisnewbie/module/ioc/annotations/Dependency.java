@@ -11,4 +11,13 @@ import java.lang.annotation.*;
 @Retention(value = RetentionPolicy.RUNTIME)
 @Target(value = {ElementType.FIELD, ElementType.ANNOTATION_TYPE})
 public @interface Dependency {
+
+    /**
+     * Whether the dependency is resolved lazily, it's only supported for fields of interface types
+     * <p>
+     * When it's true, a proxy of the interface is injected instead, the bean is looked up (and created if it's a lazy
+     * bean) on the first method call. The lazy dependency is not considered when detecting the circular dependencies.
+     * </p>
+     */
+    boolean lazy() default false;
 }
@@ -0,0 +1,20 @@
+package com.curtisnewbie.module.ioc.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Indicating that this bean should not be instantiated when the context is initialised, it's only instantiated when
+ * it's first looked up or injected into another bean
+ * <p>
+ * The lazy bean is still instantiated during the initialisation if an eager bean depends on it. Before it's
+ * instantiated, it's not included in the beans returned by {@code getBeansOfType(...)}.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see MBean
+ */
+@Documented
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = ElementType.TYPE)
+public @interface Lazy {
+}
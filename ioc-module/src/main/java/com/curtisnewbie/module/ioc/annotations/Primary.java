@@ -0,0 +1,20 @@
+package com.curtisnewbie.module.ioc.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Indicating that this bean should be chosen when multiple beans share the same superclass or interface, and the
+ * superclass or interface is used for injection or lookup
+ * <p>
+ * It's resolved when the bean definitions are registered, if there are multiple primary beans for the same superclass
+ * or interface, the reference is still ambiguous.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see MBean
+ */
+@Documented
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = ElementType.TYPE)
+public @interface Primary {
+}
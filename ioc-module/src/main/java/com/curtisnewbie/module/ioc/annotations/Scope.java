@@ -0,0 +1,33 @@
+package com.curtisnewbie.module.ioc.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Specify the scope of the bean, the beans without this annotation are singletons
+ * <p>
+ * The prototype and pooled beans are never pre-instantiated, and they are not included in the beans returned by {@code
+ * getBeansOfType(...)}. When they are injected into a singleton, the instance is owned by the singleton, a pooled one
+ * is never returned to the pool.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see MBean
+ * @see BeanScope
+ */
+@Documented
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = ElementType.TYPE)
+public @interface Scope {
+
+    /** Scope of the bean */
+    BeanScope value();
+
+    /** Max number of idle instances kept in the pool, it's only used by {@link BeanScope#POOLED} */
+    int poolSize() default 16;
+
+    /**
+     * Max time (in milliseconds) that an instance is kept idle in the pool before it's evicted, it's only used by
+     * {@link BeanScope#POOLED}
+     */
+    long maxIdleMillis() default 60_000L;
+}
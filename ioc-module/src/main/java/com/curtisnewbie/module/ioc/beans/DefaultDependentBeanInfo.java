@@ -1,5 +1,6 @@
 package com.curtisnewbie.module.ioc.beans;
 
+import java.lang.reflect.Type;
 import java.util.List;
 
 /**
@@ -14,15 +15,38 @@ public class DefaultDependentBeanInfo implements DependentBeanInfo {
      */
     private final String beanName;
 
+    /**
+     * Type required for this dependent bean (nullable)
+     */
+    private final Type beanType;
+
     /**
      * List of propertyInfo that this dependent bean will be injected into
      */
     private final List<BeanPropertyInfo> propertiesToInject;
 
+    /**
+     * Whether this dependent bean is resolved lazily
+     */
+    private final boolean lazy;
+
     public DefaultDependentBeanInfo(String beanName, List<BeanPropertyInfo> propertiesToInject) {
+        this(beanName, null, propertiesToInject);
+    }
+
+    /**
+     * @param beanType type required for the dependent bean (nullable, if it's only resolved by name)
+     */
+    public DefaultDependentBeanInfo(String beanName, Type beanType, List<BeanPropertyInfo> propertiesToInject) {
+        this(beanName, beanType, propertiesToInject, false);
+    }
+
+    public DefaultDependentBeanInfo(String beanName, Type beanType, List<BeanPropertyInfo> propertiesToInject,
+                                    boolean lazy) {
         this.beanName = beanName;
+        this.beanType = beanType;
         this.propertiesToInject = propertiesToInject;
-
+        this.lazy = lazy;
     }
 
     @Override
@@ -30,8 +54,18 @@ public class DefaultDependentBeanInfo implements DependentBeanInfo {
         return beanName;
     }
 
+    @Override
+    public Type getDependentBeanType() {
+        return beanType;
+    }
+
     @Override
     public List<BeanPropertyInfo> getBeanPropertiesToInject() {
         return propertiesToInject;
     }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
 }
@@ -1,5 +1,6 @@
 package com.curtisnewbie.module.ioc.beans;
 
+import java.lang.reflect.Type;
 import java.util.List;
 
 /**
@@ -14,8 +15,32 @@ public interface DependentBeanInfo {
      */
     String getDependentBeanName();
 
+    /**
+     * Get the type required for the dependent bean, it's either a {@link Class} or a {@link
+     * java.lang.reflect.ParameterizedType} when the type arguments should be matched as well
+     * <p>
+     * By default it's null, i.e., the dependent bean is only resolved by its name
+     * </p>
+     */
+    default Type getDependentBeanType() {
+        return null;
+    }
+
     /**
      * Get list of properties that will inject this dependent bean
      */
     List<BeanPropertyInfo> getBeanPropertiesToInject();
+
+    /**
+     * Whether the dependent bean is resolved lazily, i.e., a proxy is injected, and the bean is only looked up on the
+     * first method call, by default it's false
+     * <p>
+     * The lazy dependent bean must have its type, see {@link #getDependentBeanType()}
+     * </p>
+     *
+     * @see com.curtisnewbie.module.ioc.annotations.Dependency#lazy()
+     */
+    default boolean isLazy() {
+        return false;
+    }
 }
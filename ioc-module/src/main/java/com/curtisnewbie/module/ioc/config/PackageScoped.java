@@ -0,0 +1,20 @@
+package com.curtisnewbie.module.ioc.config;
+
+import java.util.Set;
+
+/**
+ * Type that scans the classpath, and the scanning can be limited to a number of base packages
+ *
+ * @author yongjie.zhuang
+ * @see com.curtisnewbie.module.ioc.annotations.BasePackages
+ */
+public interface PackageScoped {
+
+    /**
+     * Set the base packages to be scanned (including their sub-packages), an empty string {@code ""} means the whole
+     * classpath
+     *
+     * @param basePackages names of base packages
+     */
+    void setBasePackages(Set<String> basePackages);
+}
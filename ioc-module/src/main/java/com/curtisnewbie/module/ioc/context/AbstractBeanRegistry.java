@@ -1,7 +1,9 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
 import com.curtisnewbie.module.ioc.config.LogMutable;
-import com.curtisnewbie.module.ioc.exceptions.BeanNotFoundException;
+import com.curtisnewbie.module.ioc.exceptions.AmbiguousReferenceException;
+import com.curtisnewbie.module.ioc.exceptions.CircularDependencyException;
 import com.curtisnewbie.module.ioc.exceptions.ContextInitializedException;
 import com.curtisnewbie.module.ioc.processing.BeanNameGenerator;
 import com.curtisnewbie.module.ioc.processing.BeanPostProcessor;
@@ -9,8 +11,14 @@ import com.curtisnewbie.module.ioc.processing.InstantiationAwareBeanPostProcesso
 import com.curtisnewbie.module.ioc.util.LogUtil;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 import static com.curtisnewbie.module.ioc.util.LogUtil.info;
@@ -29,16 +37,30 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
     private final AtomicBoolean isInitialised = new AtomicBoolean(false);
 
     /**
-     * Dependencies map; bean name to its dependencies
+     * Dependencies graph; bean name to its dependencies
      * <p>
      * Dependencies will be the name of the required bean. E.g,. if bean A depends on bean B, but the B is an interface,
      * and its actual implementation is type C, then the dependent bean name will still be B.
+     * <p>
+     * The bean definitions are assigned with the ids first, in the order that they are registered.
      */
-    private final Map<String, Set<String>> dependenciesMap = new ConcurrentHashMap<>();
+    private final DependencyGraph dependencyGraph = new DependencyGraph();
 
     /** List of BeanPostProcessors that process the bean after instantiation */
     private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
 
+    /** Pools of the pooled beans, bean name to the pool */
+    private final ConcurrentMap<String, BeanPool> beanPools = new ConcurrentHashMap<>();
+
+    /** Creations of beans that are in progress, bean name to the creation */
+    private final ConcurrentMap<String, BeanCreation> beansInCreation = new ConcurrentHashMap<>();
+
+    /** Threads that are waiting for the beans created by other threads, thread to the creation it's waiting for */
+    private final ConcurrentMap<Thread, BeanCreation> threadsWaiting = new ConcurrentHashMap<>();
+
+    /** Number of threads used to instantiate the singleton beans during refresh, they are instantiated one by one if it's 1 */
+    private volatile int parallelism = 1;
+
     public AbstractBeanRegistry(BeanNameGenerator beanNameGenerator) {
         super(beanNameGenerator);
     }
@@ -46,6 +68,7 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
     @Override
     public void refresh() {
 
+        final int parallelism = this.parallelism;
         synchronized (getMutex()) {
 
             // can only be initialised once
@@ -63,30 +86,165 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
             logIfNotMuted("Bean definitions loaded");
 
             // pre-instantiate all the singleton beans first
-            for (String beanName : beanDefinitionMap.keySet()) {
-                getBeanByName(beanName);
+            if (parallelism == 1)
+                instantiateSingletons();
+        }
+
+        // the mutex is not held, such that the beans can be registered by the worker threads
+        if (parallelism > 1 && !instantiateSingletonsInParallel(parallelism)) {
+            synchronized (getMutex()) {
+                instantiateSingletons();
             }
+        }
+
+        synchronized (getMutex()) {
+            // all singleton beans are instantiated, index them by their types, and seal the registry
+            buildBeanTypeIndex();
+            seal();
             logIfNotMuted("Bean registry refreshed");
         }
     }
 
+    /**
+     * Get bean by name or alias, the bean is created if it's not instantiated yet
+     * <p>
+     * The creation is single-flight per bean, i.e., when multiple threads look up the same bean, only one of them
+     * creates it, the others wait for it to be fully initialised. Different beans are created in parallel, no lock is
+     * shared between them.
+     * </p>
+     */
     @Override
     public Object getBeanByName(String aliasOrName) {
         Object bean = super.getBeanByName(aliasOrName);
-        if (bean != null)
+        // the bean is registered before it's initialised, it's only returned when it's not being created
+        if (bean != null && (beansInCreation.isEmpty() || !beansInCreation.containsKey(getBeanName(aliasOrName))))
             return bean;
-        return createBean(aliasOrName);
+        return getOrCreateBean(aliasOrName);
     }
 
-    private Object createBean(String aliasOrName) {
+    private Object getOrCreateBean(String aliasOrName) {
         final String beanName = getBeanName(aliasOrName);
         Objects.requireNonNull(beanName);
 
+        BeanCreation inProgress = beansInCreation.get(beanName);
+        if (inProgress != null)
+            return awaitBeanCreation(beanName, inProgress);
+        Object bean = super.getBeanByName(beanName);
+        if (bean != null)
+            return bean;
+
         final BeanDefinition beanDefinition = getBeanDefinition(beanName);
         // beanDefinition is not found, the bean is not registered at all
         if (beanDefinition == null) {
-            throw BeanNotFoundException.forBeanName(beanName);
+            throw beanNotFound(aliasOrName);
         }
+        // a new instance for each lookup, nothing to wait for
+        if (beanDefinition.getScope() != BeanScope.SINGLETON)
+            return getScopedBean(beanName, beanDefinition);
+
+        final BeanCreation creation = new BeanCreation();
+        inProgress = beansInCreation.putIfAbsent(beanName, creation);
+        if (inProgress != null)
+            return awaitBeanCreation(beanName, inProgress);
+        try {
+            // it may be completed by another thread right before the creation is registered
+            bean = super.getBeanByName(beanName);
+            if (bean == null) {
+                try {
+                    bean = doCreateBean(beanName, beanDefinition);
+                } catch (Throwable e) {
+                    // the bean is registered right after instantiation, it mustn't be found once the creation failed
+                    discardSingletonBean(beanName);
+                    throw e;
+                }
+                // the index is built during refresh, the beans created afterwards are added once initialised
+                if (isSealed())
+                    addToBeanTypeIndex(beanName);
+            }
+            creation.future.complete(bean);
+            return bean;
+        } catch (Throwable e) {
+            creation.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            beansInCreation.remove(beanName, creation);
+        }
+    }
+
+    /**
+     * Get instance of the prototype or pooled bean, the pooled one is borrowed from the pool if there is an idle
+     * instance, otherwise it's created
+     */
+    private Object getScopedBean(String beanName, BeanDefinition beanDefinition) {
+        if (beanDefinition.getScope() == BeanScope.POOLED) {
+            Object bean = getBeanPool(beanName, beanDefinition).borrow();
+            if (bean != null)
+                return bean;
+        }
+        return doCreateBean(beanName, beanDefinition);
+    }
+
+    private BeanPool getBeanPool(String beanName, BeanDefinition beanDefinition) {
+        return beanPools.computeIfAbsent(beanName,
+                k -> new BeanPool(beanDefinition.getPoolSize(), beanDefinition.getMaxIdleMillis()));
+    }
+
+    /**
+     * Release the bean, the pooled bean is returned to its pool, it's dropped if the pool is full
+     * <p>
+     * The bean definition is resolved by the name that is looked up rather than the class of the bean, such that the
+     * wrapped or proxied beans are returned to the right pool as well.
+     * </p>
+     */
+    @Override
+    public void releaseBean(String aliasOrName, Object bean) {
+        Objects.requireNonNull(aliasOrName);
+        Objects.requireNonNull(bean);
+        final String beanName = getBeanName(aliasOrName);
+        final BeanDefinition beanDefinition = beanName != null ? getBeanDefinition(beanName) : null;
+        if (beanDefinition != null && beanDefinition.getScope() == BeanScope.POOLED)
+            getBeanPool(beanName, beanDefinition).release(bean);
+    }
+
+    /**
+     * Wait for the bean that is being created by another thread
+     * <p>
+     * The creation that each thread is waiting for is recorded before it waits. If the thread that creates the bean
+     * is (transitively) waiting for a bean created by the current thread, waiting would never end, so it fails with
+     * {@link CircularDependencyException} instead. The wait is recorded before the check in each thread, so at least
+     * one of the threads in such a circle sees the whole circle.
+     * </p>
+     */
+    private Object awaitBeanCreation(String beanName, BeanCreation creation) {
+        final Thread current = Thread.currentThread();
+        // the bean is looked up again while the current thread is creating it, e.g., by a post processor
+        if (creation.creator == current) {
+            Object bean = super.getBeanByName(beanName);
+            if (bean == null)
+                throw new CircularDependencyException("Bean " + beanName + " is looked up while it's being instantiated");
+            return bean;
+        }
+        threadsWaiting.put(current, creation);
+        try {
+            // bounded, the threads may be waiting for each other in a circle that doesn't include the current one
+            BeanCreation c = creation;
+            for (int i = threadsWaiting.size(); c != null && !c.future.isDone() && i >= 0; i--) {
+                if (c.creator == current)
+                    throw new CircularDependencyException("Detected circular dependency while waiting for bean " + beanName
+                            + " created by another thread");
+                c = threadsWaiting.get(c.creator);
+            }
+            return creation.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        } finally {
+            threadsWaiting.remove(current, creation);
+        }
+    }
+
+    private Object doCreateBean(String beanName, BeanDefinition beanDefinition) {
         // instantiate bean
         Object bean = instantiateBean(beanDefinition);
         // after instantiation
@@ -105,7 +263,8 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
             // instantiate the bean
             bean = doCreateBean(beanDefinition);
             Objects.requireNonNull(bean, "Bean is not instantiated");
-            registerSingletonBean(beanDefinition.getName(), bean);
+            if (beanDefinition.getScope() == BeanScope.SINGLETON)
+                registerSingletonBean(beanDefinition.getName(), bean);
         }
         return bean;
     }
@@ -163,6 +322,158 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
         return null;
     }
 
+    /** Instantiate the singleton beans one by one, the lazy beans are skipped */
+    private void instantiateSingletons() {
+        for (BeanDefinition beanDefinition : beanDefinitionMap.values()) {
+            if (isPreInstantiated(beanDefinition))
+                getBeanByName(beanDefinition.getName());
+        }
+    }
+
+    /** Whether the bean is instantiated during refresh, the lazy beans and non-singleton beans are not */
+    private static boolean isPreInstantiated(BeanDefinition beanDefinition) {
+        return !beanDefinition.isLazy() && beanDefinition.getScope() == BeanScope.SINGLETON;
+    }
+
+    /**
+     * Instantiate the singleton beans in parallel
+     * <p>
+     * The dependencies of all the beans are parsed before anything is created, the beans are then instantiated in
+     * topological waves, i.e., a bean is only instantiated once all its dependencies are completed, and the beans in
+     * the same wave are independent of each other, so they are instantiated concurrently on a {@link ForkJoinPool}.
+     * </p>
+     * <p>
+     * The mutex is not held while the beans are being instantiated, the {@link BeanPostProcessor}s must be thread-safe.
+     * If the dependencies can't be resolved, or there are circular dependencies, nothing is instantiated, and it falls
+     * back to instantiating the beans one by one, such that the errors are reported in the same way.
+     * </p>
+     *
+     * @param parallelism number of threads
+     * @return whether the beans are instantiated
+     */
+    private boolean instantiateSingletonsInParallel(int parallelism) {
+        List<List<String>> waves = planInstantiationWaves();
+        if (waves == null)
+            return false;
+        logIfNotMuted("Instantiating %d beans in %d waves, parallelism: %d", beanDefinitionMap.size(), waves.size(),
+                parallelism);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        final AtomicReference<RuntimeException> error = new AtomicReference<>();
+        try {
+            for (List<String> wave : waves) {
+                List<RecursiveAction> tasks = new ArrayList<>(wave.size());
+                for (String beanName : wave) {
+                    // the beans created on demand are still planned, such that the beans depending on them are created afterwards
+                    if (!isPreInstantiated(beanDefinitionMap.get(beanName)))
+                        continue;
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            try {
+                                getBeanByName(beanName);
+                            } catch (RuntimeException e) {
+                                // the original exception is kept, the pool may wrap it in a new one
+                                error.compareAndSet(null, e);
+                            }
+                        }
+                    });
+                }
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+                if (error.get() != null)
+                    throw error.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return true;
+    }
+
+    /**
+     * Plan the waves of instantiation, each wave only contains the beans that depend on the beans in the previous
+     * waves
+     *
+     * @return waves, or null if the dependencies can't be resolved or there are circular dependencies
+     */
+    private List<List<String>> planInstantiationWaves() {
+        // bean name -> names of the beans (that have definitions) it depends on
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        for (Map.Entry<String, BeanDefinition> e : beanDefinitionMap.entrySet()) {
+            Collection<String> dependentNames;
+            try {
+                dependentNames = parseDependentBeanNames(e.getValue());
+            } catch (RuntimeException ex) {
+                return null;
+            }
+            if (dependentNames == null)
+                return null;
+            Set<String> deps = new HashSet<>();
+            for (String d : dependentNames) {
+                if (beanDefinitionMap.containsKey(d))
+                    deps.add(d);
+            }
+            dependencies.put(e.getKey(), deps);
+        }
+
+        List<List<String>> waves = new ArrayList<>();
+        Set<String> completed = new HashSet<>();
+        while (completed.size() < dependencies.size()) {
+            List<String> wave = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> e : dependencies.entrySet()) {
+                if (!completed.contains(e.getKey()) && completed.containsAll(e.getValue()))
+                    wave.add(e.getKey());
+            }
+            // circular dependencies
+            if (wave.isEmpty())
+                return null;
+            completed.addAll(wave);
+            waves.add(wave);
+        }
+        return waves;
+    }
+
+    /**
+     * Parse the names of the beans that the bean depends on, it's used to plan the parallel instantiation
+     *
+     * @param beanDefinition bean definition
+     * @return names of the beans (not aliases), or null if the dependencies can't be parsed, then the beans are not
+     * instantiated in parallel
+     */
+    protected Collection<String> parseDependentBeanNames(BeanDefinition beanDefinition) {
+        return null;
+    }
+
+    /**
+     * Set the number of threads used to instantiate the singleton beans during refresh, by default it's 1, i.e., the
+     * beans are instantiated one by one
+     * <p>
+     * When it's greater than 1, the independent beans are instantiated concurrently, see {@link #refresh()}. It must be
+     * set before the registry is refreshed.
+     * </p>
+     *
+     * @param parallelism parallelism level
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be greater than 0, but was " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /** Creation of a bean that is in progress */
+    private static final class BeanCreation {
+
+        /** thread that creates the bean */
+        private final Thread creator = Thread.currentThread();
+
+        /** completed once the bean is fully initialised */
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+    }
+
     /**
      * Load {@code BeanDefinition}
      */
@@ -208,14 +519,32 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
             info(logger, formatStr, args);
     }
 
+    @Override
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        synchronized (getMutex()) {
+            super.registerBeanDefinition(beanName, beanDefinition);
+            synchronized (this.dependencyGraph) {
+                this.dependencyGraph.idOf(beanName);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The aliases are resolved to the bean names, such that the dependencies registered through different aliases of
+     * the same bean are always connected.
+     * </p>
+     */
     @Override
     public void registerDependency(String beanName, String dependentBeanName) {
         Objects.requireNonNull(beanName);
         Objects.requireNonNull(dependentBeanName);
 
-        synchronized (this.dependenciesMap) {
-            this.dependenciesMap.computeIfAbsent(beanName, k -> new HashSet<>());
-            this.dependenciesMap.get(beanName).add(dependentBeanName);
+        final String from = resolveDependencyNode(beanName);
+        final String to = resolveDependencyNode(dependentBeanName);
+        synchronized (this.dependencyGraph) {
+            this.dependencyGraph.addEdge(from, to);
         }
     }
 
@@ -224,37 +553,19 @@ public abstract class AbstractBeanRegistry extends DefaultSingletonBeanRegistry
         Objects.requireNonNull(beanName);
         Objects.requireNonNull(dependentBeanName);
 
-        synchronized (this.dependenciesMap) {
-            return this.checkIsDependentRecursively(beanName, dependentBeanName, new HashSet<>());
+        final String from = resolveDependencyNode(beanName);
+        final String to = resolveDependencyNode(dependentBeanName);
+        synchronized (this.dependencyGraph) {
+            return this.dependencyGraph.isReachable(from, to);
         }
     }
 
-    /**
-     * Recursively check if the other bean is a dependent bean
-     *
-     * @param beanName          current bean
-     * @param dependentBeanName the other bean that current bean might be dependent on
-     * @param beansSeen         the beans that we have seen
-     */
-    private boolean checkIsDependentRecursively(String beanName, String dependentBeanName, Set<String> beansSeen) {
-        // circular dependency, not dependent
-        if (beansSeen.contains(beanName)) {
-            return false;
-        }
-        // not found, even in a recursive way
-        Set<String> dependentBeans = this.dependenciesMap.get(beanName);
-        if (dependentBeans == null || dependentBeans.isEmpty())
-            return false;
-        if (dependentBeans.contains(dependentBeanName)) {
-            return true;
-        }
-        // check transitive dependencies
-        for (String d : dependentBeans) {
-            beansSeen.add(d);
-            if (checkIsDependentRecursively(d, dependentBeanName, beansSeen)) {
-                return true;
-            }
+    /** Resolve the name used in the dependency graph, it's the bean name, or the alias itself if it's ambiguous */
+    private String resolveDependencyNode(String aliasOrName) {
+        try {
+            return getBeanName(aliasOrName);
+        } catch (AmbiguousReferenceException e) {
+            return aliasOrName;
         }
-        return false;
     }
 }
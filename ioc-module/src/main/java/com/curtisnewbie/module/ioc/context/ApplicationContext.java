@@ -1,5 +1,7 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.scan.ScanReport;
+
 /**
  * Context of the application
  *
@@ -21,4 +23,16 @@ public interface ApplicationContext {
      * Get main class
      */
     Class<?> getMainClazz();
+
+    /**
+     * Get report of the classpath scanning for the bean classes and the properties files, e.g., the time spent on each
+     * classpath entry
+     *
+     * @return report (nullable, if the scanners don't report or the context is not initialized yet), by default it's
+     * null
+     * @see com.curtisnewbie.module.ioc.processing.ScanReportProvider
+     */
+    default ScanReport getScanReport() {
+        return null;
+    }
 }
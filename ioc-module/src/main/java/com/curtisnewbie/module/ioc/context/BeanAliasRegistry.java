@@ -38,4 +38,25 @@ public interface BeanAliasRegistry {
      * @param alias    alias
      */
     void addAlias(String beanName, String alias);
+
+    /**
+     * Mark the bean as primary, when an alias is shared by multiple beans, it's resolved to the only primary bean among
+     * them
+     * <p>
+     * By default it does nothing, i.e., the registry doesn't support primary beans
+     * </p>
+     *
+     * @param beanName beanName
+     */
+    default void markAsPrimary(String beanName) {
+    }
+
+    /**
+     * Check whether the bean is marked as primary, by default it's always false
+     *
+     * @param beanName beanName
+     */
+    default boolean isPrimary(String beanName) {
+        return false;
+    }
 }
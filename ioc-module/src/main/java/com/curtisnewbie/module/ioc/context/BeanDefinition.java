@@ -1,5 +1,7 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
+
 /**
  * Definition of bean
  *
@@ -17,4 +19,37 @@ public interface BeanDefinition {
      */
     String getName();
 
+    /**
+     * Whether the bean is only instantiated when it's first looked up or injected, by default it's false
+     *
+     * @see com.curtisnewbie.module.ioc.annotations.Lazy
+     */
+    default boolean isLazy() {
+        return false;
+    }
+
+    /**
+     * Get scope of the bean, by default it's {@link BeanScope#SINGLETON}
+     *
+     * @see com.curtisnewbie.module.ioc.annotations.Scope
+     */
+    default BeanScope getScope() {
+        return BeanScope.SINGLETON;
+    }
+
+    /**
+     * Get max number of idle instances kept in the pool, it's only used by {@link BeanScope#POOLED}, by default it's 0
+     */
+    default int getPoolSize() {
+        return 0;
+    }
+
+    /**
+     * Get max time (in milliseconds) that an instance is kept idle in the pool, it's only used by {@link
+     * BeanScope#POOLED}, by default it's 0
+     */
+    default long getMaxIdleMillis() {
+        return 0L;
+    }
+
 }
@@ -0,0 +1,114 @@
+package com.curtisnewbie.module.ioc.context;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded pool of idle bean instances
+ * <p>
+ * The instances are kept in a fixed array of slots, they are borrowed and returned by CAS on the slots, so it never
+ * locks. Each thread starts probing at a slot derived from its id, such that the threads don't always compete for the
+ * same slots. The instances idle for longer than the max idle time are evicted when they are met by {@link #borrow()}
+ * or {@link #release(Object)}, they are simply dropped.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class BeanPool {
+
+    private final AtomicReferenceArray<IdleBean> slots;
+    private final long maxIdleNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param size          max number of idle instances
+     * @param maxIdleMillis max idle time in milliseconds
+     */
+    BeanPool(int size, long maxIdleMillis) {
+        this(size, maxIdleMillis, System::nanoTime);
+    }
+
+    /**
+     * @param size          max number of idle instances
+     * @param maxIdleMillis max idle time in milliseconds
+     * @param nanoClock     clock in nanoseconds that measures the idle time
+     */
+    BeanPool(int size, long maxIdleMillis, LongSupplier nanoClock) {
+        if (size < 1)
+            throw new IllegalArgumentException("Pool size must be greater than 0, but was " + size);
+        if (maxIdleMillis < 0)
+            throw new IllegalArgumentException("Max idle time must not be negative, but was " + maxIdleMillis);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Borrow an idle instance
+     *
+     * @return instance, or null if the pool is empty
+     */
+    Object borrow() {
+        final int n = slots.length();
+        final int start = probe(n);
+        final long now = nanoClock.getAsLong();
+        for (int i = 0; i < n; i++) {
+            int j = (start + i) % n;
+            IdleBean idle = slots.get(j);
+            if (idle != null && slots.compareAndSet(j, idle, null) && !idle.isExpired(now, maxIdleNanos))
+                return idle.bean;
+        }
+        return null;
+    }
+
+    /**
+     * Return the instance to the pool, the expired instances are evicted along the way
+     *
+     * @return whether it's kept, it's dropped if the pool is full
+     */
+    boolean release(Object bean) {
+        final IdleBean released = new IdleBean(bean, nanoClock.getAsLong());
+        final int n = slots.length();
+        final int start = probe(n);
+        boolean kept = false;
+        for (int i = 0; i < n; i++) {
+            int j = (start + i) % n;
+            IdleBean idle = slots.get(j);
+            if (idle != null && idle.isExpired(released.idleSince, maxIdleNanos) && slots.compareAndSet(j, idle, null))
+                idle = null;
+            if (idle == null && !kept && slots.compareAndSet(j, null, released))
+                kept = true;
+        }
+        return kept;
+    }
+
+    /** Number of idle instances, it's only an estimate when the pool is used concurrently */
+    int size() {
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null)
+                size++;
+        }
+        return size;
+    }
+
+    private static int probe(int n) {
+        return (int) (Thread.currentThread().getId() % n);
+    }
+
+    private static final class IdleBean {
+
+        private final Object bean;
+        private final long idleSince;
+
+        private IdleBean(Object bean, long idleSince) {
+            this.bean = bean;
+            this.idleSince = idleSince;
+        }
+
+        private boolean isExpired(long now, long maxIdleNanos) {
+            return now - idleSince > maxIdleNanos;
+        }
+    }
+}
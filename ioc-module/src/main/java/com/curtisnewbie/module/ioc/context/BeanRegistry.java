@@ -1,8 +1,12 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.exceptions.BeanNotFoundException;
+import com.curtisnewbie.module.ioc.exceptions.TypeNotSupportedForInjectionException;
 import com.curtisnewbie.module.ioc.processing.BeanPostProcessor;
 
-import java.util.Map;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
 
 /**
  * Registry of beans
@@ -20,6 +24,28 @@ public interface BeanRegistry {
      */
     <T> T getBeanByClass(Class<T> clazz);
 
+    /**
+     * Get bean by type, the type arguments are matched as well if the type is parameterized
+     * <p>
+     * E.g., {@code Repository<User>} is resolved to the bean that implements {@code Repository<User>}, even if there
+     * are other beans that implement {@code Repository<Order>}
+     * </p>
+     *
+     * <p>
+     * By default only the raw type is matched, the registries that resolve the type arguments should override it.
+     * </p>
+     *
+     * @param type either a {@link Class} or a {@link java.lang.reflect.ParameterizedType}
+     * @return bean
+     */
+    default Object getBeanByType(Type type) {
+        if (type instanceof Class)
+            return getBeanByClass((Class<?>) type);
+        if (type instanceof ParameterizedType)
+            return getBeanByClass((Class<?>) ((ParameterizedType) type).getRawType());
+        throw new TypeNotSupportedForInjectionException("Type is not supported for resolving beans: " + type.getTypeName());
+    }
+
     /**
      * Get bean by name
      *
@@ -28,6 +54,68 @@ public interface BeanRegistry {
      */
     Object getBeanByName(String beanName);
 
+    /**
+     * Find bean by Class, it's the same as {@link #getBeanByClass(Class)} except that it returns null if the bean is
+     * not found
+     *
+     * @param clazz class of the bean
+     * @param <T>   type of the bean
+     * @return bean (nullable)
+     */
+    default <T> T findBeanByClass(Class<T> clazz) {
+        try {
+            return getBeanByClass(clazz);
+        } catch (BeanNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Find bean by name, it's the same as {@link #getBeanByName(String)} except that it returns null if the bean is
+     * not found
+     *
+     * @param beanName name of the bean
+     * @return bean (nullable)
+     */
+    default Object findBeanByName(String beanName) {
+        try {
+            return getBeanByName(beanName);
+        } catch (BeanNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Release the bean that is no longer used, a pooled bean is returned to its pool, such that it can be borrowed by
+     * the next lookup, it does nothing for the other beans
+     * <p>
+     * The bean must not be used after it's released.
+     * </p>
+     *
+     * <p>
+     * By default it does nothing, i.e., the registry doesn't support pooled beans.
+     * </p>
+     *
+     * @param beanName name or alias of the bean that is looked up
+     * @param bean     bean
+     * @see com.curtisnewbie.module.ioc.annotations.BeanScope#POOLED
+     */
+    default void releaseBean(String beanName, Object bean) {
+    }
+
+    /**
+     * Release the bean that is no longer used, it's the same as {@link #releaseBean(String, Object)} except that the
+     * bean is resolved by the class that is looked up
+     * <p>
+     * By default it does nothing, like {@link #releaseBean(String, Object)}.
+     * </p>
+     *
+     * @param clazz class that is looked up
+     * @param bean  bean
+     */
+    default void releaseBean(Class<?> clazz, Object bean) {
+    }
+
     /**
      * Check if the context contains bean of the given name
      *
@@ -46,7 +134,27 @@ public interface BeanRegistry {
      * Get map of beans (bean name to bean instance) that implements/extends the given type
      *
      * @param parentType parent type
-     * @return map of beans (bean name to bean instance) that implements/extends the given type
+     * @return unmodifiable map of beans (bean name to bean instance) that implements/extends the given type
      */
     Map<String, Object> getBeansOfType(Class<?> parentType);
+
+    /**
+     * Get list of beans that implements/extends the given type
+     * <p>
+     * A bean that is registered with multiple names only appears once in the list
+     * </p>
+     *
+     * @param parentType parent type
+     * @param <T>        parent type
+     * @return unmodifiable list of beans that implements/extends the given type
+     */
+    default <T> List<T> getBeanListOfType(Class<T> parentType) {
+        Set<Object> beans = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> list = new ArrayList<>();
+        for (Object bean : getBeansOfType(parentType).values()) {
+            if (beans.add(bean))
+                list.add(parentType.cast(bean));
+        }
+        return Collections.unmodifiableList(list);
+    }
 }
@@ -0,0 +1,113 @@
+package com.curtisnewbie.module.ioc.context;
+
+import com.curtisnewbie.module.ioc.util.ClassHierarchyUtil;
+
+import java.util.*;
+
+/**
+ * Immutable index of beans by their types
+ * <p>
+ * Each type (the bean's class, its superclasses and interfaces) is mapped to the beans that implement/extend it, the
+ * maps and lists returned are created when the index is built, so the lookups don't lock or allocate anything.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class BeanTypeIndex {
+
+    private final Map<Class<?>, TypedBeans> typedBeansMap;
+
+    private BeanTypeIndex(Map<Class<?>, TypedBeans> typedBeansMap) {
+        this.typedBeansMap = typedBeansMap;
+    }
+
+    /**
+     * Build the index
+     *
+     * @param beanTypes bean name to the type of the bean
+     * @param beans     bean name to the bean instance
+     */
+    static BeanTypeIndex build(Map<String, Class<?>> beanTypes, Map<String, Object> beans) {
+        // sorted by name, so that the order of the beans is stable
+        Map<Class<?>, SortedMap<String, Object>> collected = new HashMap<>();
+        for (Map.Entry<String, Class<?>> e : beanTypes.entrySet()) {
+            Object bean = beans.get(e.getKey());
+            if (bean == null)
+                continue;
+            for (Class<?> t : supertypesOf(e.getValue()))
+                collected.computeIfAbsent(t, k -> new TreeMap<>()).put(e.getKey(), bean);
+        }
+
+        Map<Class<?>, TypedBeans> typedBeansMap = new HashMap<>(collected.size() * 2);
+        for (Map.Entry<Class<?>, SortedMap<String, Object>> e : collected.entrySet())
+            typedBeansMap.put(e.getKey(), new TypedBeans(e.getValue()));
+        return new BeanTypeIndex(typedBeansMap);
+    }
+
+    /**
+     * Create a copy of the index with one more bean, only the entries of the bean's types are rebuilt
+     *
+     * @param beanName name of the bean
+     * @param type     type of the bean
+     * @param bean     bean instance
+     */
+    BeanTypeIndex with(String beanName, Class<?> type, Object bean) {
+        Map<Class<?>, TypedBeans> copy = new HashMap<>(typedBeansMap);
+        for (Class<?> t : supertypesOf(type)) {
+            TypedBeans tb = copy.get(t);
+            SortedMap<String, Object> namedBeans = tb != null ? new TreeMap<>(tb.beanMap) : new TreeMap<>();
+            namedBeans.put(beanName, bean);
+            copy.put(t, new TypedBeans(namedBeans));
+        }
+        return new BeanTypeIndex(copy);
+    }
+
+    /**
+     * Get map of beans (bean name to bean instance) that implements/extends the given type
+     *
+     * @return unmodifiable map, it's never null
+     */
+    Map<String, Object> getBeansOfType(Class<?> type) {
+        TypedBeans tb = typedBeansMap.get(type);
+        return tb != null ? tb.beanMap : Collections.emptyMap();
+    }
+
+    /**
+     * Get list of beans that implements/extends the given type, a bean registered with multiple names only appears
+     * once
+     *
+     * @return unmodifiable list, it's never null
+     */
+    @SuppressWarnings("unchecked")
+    <T> List<T> getBeanListOfType(Class<T> type) {
+        TypedBeans tb = typedBeansMap.get(type);
+        return tb != null ? (List<T>) tb.beanList : Collections.emptyList();
+    }
+
+    /** Get the class itself, its superclasses and all the interfaces that it implements */
+    static Set<Class<?>> supertypesOf(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        types.add(clazz);
+        types.addAll(ClassHierarchyUtil.getSupertypes(clazz));
+        return types;
+    }
+
+    /** Beans of a specific type */
+    private static final class TypedBeans {
+
+        private final Map<String, Object> beanMap;
+        private final List<Object> beanList;
+
+        private TypedBeans(SortedMap<String, Object> namedBeans) {
+            this.beanMap = Collections.unmodifiableMap(new LinkedHashMap<>(namedBeans));
+
+            List<Object> distinct = new ArrayList<>(namedBeans.size());
+            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Object b : namedBeans.values()) {
+                if (seen.add(b))
+                    distinct.add(b);
+            }
+            this.beanList = Collections.unmodifiableList(Arrays.asList(distinct.toArray()));
+        }
+    }
+}
@@ -1,42 +1,99 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.config.PackageScoped;
+import com.curtisnewbie.module.ioc.processing.ScanReportProvider;
+import com.curtisnewbie.module.ioc.scan.ClassPathIndex;
+import com.curtisnewbie.module.ioc.scan.ClassPathScanResult;
+import com.curtisnewbie.module.ioc.scan.ScanCache;
+import com.curtisnewbie.module.ioc.scan.ScanReport;
 import com.curtisnewbie.module.ioc.util.ClassLoaderHolder;
-import com.curtisnewbie.module.ioc.util.ReflectionsScanUtil;
-import org.reflections.Reflections;
+import com.curtisnewbie.module.ioc.util.PackageScopeUtil;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.Properties;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.util.*;
 
 /**
  * Default implementation of {@link PropertyRegistry}
  * <p>
- * This class implements {@link #refresh()}} by using Reflections library to scan the class path for files that match
- * the pattern: {@code .*.properties}, and load all the key-value pairs to the registry.
+ * This class implements {@link #refresh()}} by using a {@link ClassPathIndex} to scan the class path for files that
+ * match the pattern: {@code .*.properties}, and load all the key-value pairs to the registry, the class files are never
+ * read by the registry itself. The index can be shared with the {@link
+ * com.curtisnewbie.module.ioc.processing.BytecodeBeanClassScanner}, such that the classpath is walked only once for
+ * both of them, the first refresh walks the classes and the properties files together in this case.
+ * </p>
+ * <p>
+ * If base packages are set, only the classpath entries (directories or jars) that contain these packages are
+ * scanned, the properties files anywhere in these entries are still loaded.
+ * </p>
+ * <p>
+ * The paths of the properties files found can be cached on disk with {@link #setScanCache(ScanCache)}, then the
+ * classpath is only scanned again when the fingerprint of the classpath changes.
  * </p>
  *
  * @author yongjie.zhuang
  * @see com.curtisnewbie.module.ioc.processing.PropertyValueBeanPostProcessor
  * @see com.curtisnewbie.module.ioc.convert.Converters
  */
-public class ClassPathRefreshablePropertyRegistry extends AbstractPropertyRegistry implements PropertyRegistry, RefreshableRegistry {
+public class ClassPathRefreshablePropertyRegistry extends AbstractPropertyRegistry
+        implements PropertyRegistry, RefreshableRegistry, PackageScoped, ScanReportProvider {
 
-    private final String ROOT_PATH = "";
-    private final Pattern propertiesFilePattern = Pattern.compile(".*\\.properties");
+    private final String ROOT_PATH = PackageScopeUtil.ROOT_PACKAGE;
     private final ClassLoader cl = ClassLoaderHolder.getClassLoader();
+    private final ClassPathIndex classPathIndex;
+    private volatile Set<String> basePackages = Collections.singleton(ROOT_PATH);
+    private volatile ScanReport scanReport;
+
+    public ClassPathRefreshablePropertyRegistry() {
+        this(new ClassPathIndex());
+    }
+
+    /**
+     * @param classPathIndex index of the classpath, it may be shared with other components
+     */
+    public ClassPathRefreshablePropertyRegistry(ClassPathIndex classPathIndex) {
+        Objects.requireNonNull(classPathIndex);
+        this.classPathIndex = classPathIndex;
+    }
+
+    @Override
+    public void setBasePackages(Set<String> basePackages) {
+        Objects.requireNonNull(basePackages);
+        this.basePackages = PackageScopeUtil.normalize(basePackages);
+    }
+
+    /**
+     * Set the number of threads used for scanning, the classpath entries are scanned concurrently when it's greater
+     * than 1, by default it's the number of available processors
+     *
+     * @param parallelism parallelism level
+     */
+    public void setParallelism(int parallelism) {
+        classPathIndex.setParallelism(parallelism);
+    }
+
+    /**
+     * Set the cache of the paths of properties files, by default the paths are not cached
+     *
+     * @param scanCache cache (nullable, to disable the cache)
+     */
+    public void setScanCache(ScanCache scanCache) {
+        classPathIndex.setScanCache(scanCache);
+    }
 
     @Override
     public void refresh() {
         synchronized (this.propertyValues) {
-            Reflections reflections = ReflectionsScanUtil.getReflectionsForResourcesScanning(ROOT_PATH, cl);
-            Set<String> relPaths = reflections.getResources(propertiesFilePattern);
-            for (String p : relPaths) {
+            ClassPathScanResult result = classPathIndex.scanPropertiesResources(basePackages, cl);
+            // the full scan is shared with the bean class scanner, it's already reported by the scanner
+            this.scanReport = result.isPropertiesOnly() ? result.getScanReport() : null;
+            for (String p : result.getPropertiesResources()) {
                 // load each properties file
                 Properties properties = new Properties();
-                try {
-                    properties.load(cl.getResourceAsStream(p));
+                try (InputStream in = cl.getResourceAsStream(p)) {
+                    if (in == null)
+                        continue;
+                    properties.load(in);
                 } catch (IOException e) {
                     throw new IllegalStateException(p, e);
                 }
@@ -46,4 +103,13 @@ public class ClassPathRefreshablePropertyRegistry extends AbstractPropertyRegist
             }
         }
     }
+
+    /**
+     * Get report of the last scan of the properties files, it's null if the scan is shared with the bean class
+     * scanner, i.e., it's reported by the scanner
+     */
+    @Override
+    public ScanReport getScanReport() {
+        return scanReport;
+    }
 }
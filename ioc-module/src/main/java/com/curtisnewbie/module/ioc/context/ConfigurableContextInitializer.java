@@ -1,6 +1,7 @@
 package com.curtisnewbie.module.ioc.context;
 
 import com.curtisnewbie.module.ioc.processing.*;
+import com.curtisnewbie.module.ioc.scan.ScanCache;
 
 /**
  * Configurable Initializer of the context
@@ -22,6 +23,29 @@ public interface ConfigurableContextInitializer extends ContextInitializer {
      */
     ApplicationContext initialize(Class<?> mainClazz);
 
+    /**
+     * Set the number of threads used to instantiate the singleton beans, by default it's 1, i.e., the beans are
+     * instantiated one by one
+     * <p>
+     * When it's greater than 1, the beans that don't depend on each other are instantiated concurrently, so the {@link
+     * BeanPostProcessor}s registered must be thread-safe
+     * </p>
+     */
+    void setBeanCreationParallelism(int parallelism);
+
+    /**
+     * Set the cache of the classpath scanning, by default the scanning result is not cached
+     * <p>
+     * It's only used by the default {@link BeanClassScanner} and {@link PropertyRegistry}, it doesn't apply to the
+     * ones registered by {@link #registerBeanClassScanner(BeanClassScanner)} and {@link
+     * #registerPropertyRegistry(PropertyRegistry)}
+     * </p>
+     *
+     * @param scanCache cache (nullable, to disable the cache)
+     * @see ScanCache#inTempDirectory()
+     */
+    void setScanCache(ScanCache scanCache);
+
     /**
      * Register a {@link BeanPostProcessor} to be used by the context
      */
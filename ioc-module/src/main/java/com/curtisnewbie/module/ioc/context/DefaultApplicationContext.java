@@ -1,18 +1,28 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.config.PackageScoped;
 import com.curtisnewbie.module.ioc.processing.*;
+import com.curtisnewbie.module.ioc.scan.ScanRecorder;
+import com.curtisnewbie.module.ioc.scan.ScanReport;
+import com.curtisnewbie.module.ioc.util.LogUtil;
+import com.curtisnewbie.module.ioc.util.PackageScopeUtil;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
 
 /**
- * Default implementation of application context, which currently only supports singleton beans
+ * Default implementation of application context, the beans are singletons unless a different scope is specified by
+ * {@link com.curtisnewbie.module.ioc.annotations.Scope}
  *
  * @author yongjie.zhuang
  */
 public class DefaultApplicationContext extends AbstractApplicationContext {
 
+    private static final Logger logger = LogUtil.getLogger(DefaultApplicationContext.class);
+
     /** bean registry */
     private final DefaultInjectCapableBeanRegistry beanRegistry;
     private List<BeanPostProcessor> beanPostProcessors;
@@ -45,15 +55,13 @@ public class DefaultApplicationContext extends AbstractApplicationContext {
         this.beanAliasParser = beanAliasParser;
         this.propertyRegistry = propertyRegistry;
 
-        if (propertyRegistry instanceof RefreshableRegistry)
-            ((RefreshableRegistry) propertyRegistry).refresh();
-
         // create bean registry
         this.beanRegistry = new DefaultInjectCapableBeanRegistry(
                 this.beanClassScanner,
                 this.beanNameGenerator,
                 this.beanInstantiationStrategy,
-                this.beanAliasParser
+                this.beanAliasParser,
+                this.beanDependencyParser
         );
         // create a list of bean post processors, note that this order matters
         this.beanPostProcessors = Arrays.asList(
@@ -70,6 +78,15 @@ public class DefaultApplicationContext extends AbstractApplicationContext {
         registerBeanPostProcessors();
     }
 
+    /**
+     * Set the number of threads used to instantiate the singleton beans, by default it's 1
+     *
+     * @see AbstractBeanRegistry#setParallelism(int)
+     */
+    public void setBeanCreationParallelism(int parallelism) {
+        this.beanRegistry.setParallelism(parallelism);
+    }
+
     private void registerBeanPostProcessors() {
         for (BeanPostProcessor bpp : beanPostProcessors)
             this.beanRegistry.registerBeanPostProcessor(bpp);
@@ -77,6 +94,18 @@ public class DefaultApplicationContext extends AbstractApplicationContext {
 
     @Override
     protected void initializeContext() {
+        // limit the scanning to the base packages of the main class
+        Set<String> basePackages = PackageScopeUtil.resolveBasePackages(getMainClazz());
+        if (this.beanClassScanner instanceof PackageScoped)
+            ((PackageScoped) this.beanClassScanner).setBasePackages(basePackages);
+        if (this.propertyRegistry instanceof PackageScoped)
+            ((PackageScoped) this.propertyRegistry).setBasePackages(basePackages);
+
+        // the properties are needed to create the beans, the walk of the classpath is shared with the bean class scanner
+        // if they share the same index, i.e., the bean classes are found here as well
+        if (this.propertyRegistry instanceof RefreshableRegistry)
+            ((RefreshableRegistry) this.propertyRegistry).refresh();
+
         // mute the beanRegistry if necessary
         if (this.beanRegistry.canMuteLog() && isLogMuted())
             this.beanRegistry.muteLog();
@@ -84,6 +113,10 @@ public class DefaultApplicationContext extends AbstractApplicationContext {
         this.beanRegistry.registerSingletonBean(ApplicationContext.class, this);
         // starts bean scanning, instantiation, and dependency injection
         this.beanRegistry.refresh();
+
+        ScanReport scanReport = getScanReport();
+        if (scanReport != null && !isLogMuted())
+            LogUtil.info(logger, "Classpath scanned, %s", scanReport);
     }
 
     @Override
@@ -91,6 +124,25 @@ public class DefaultApplicationContext extends AbstractApplicationContext {
         return beanRegistry;
     }
 
+    /**
+     * Get report of the classpath scanning, it includes both the bean class scanner and the property registry (e.g.,
+     * when the bean classes are read from the index, while the properties files are still scanned)
+     */
+    @Override
+    public ScanReport getScanReport() {
+        ScanReport beanClassReport = this.beanClassScanner instanceof ScanReportProvider ?
+                ((ScanReportProvider) this.beanClassScanner).getScanReport() : null;
+        ScanReport propertiesReport = this.propertyRegistry instanceof ScanReportProvider ?
+                ((ScanReportProvider) this.propertyRegistry).getScanReport() : null;
+        if (beanClassReport == null || propertiesReport == null)
+            return beanClassReport != null ? beanClassReport : propertiesReport;
+
+        ScanRecorder recorder = new ScanRecorder();
+        recorder.merge(beanClassReport);
+        recorder.merge(propertiesReport);
+        return recorder.toReport();
+    }
+
     @Override
     public PropertyRegistry getPropertyRegistry() {
         return null;
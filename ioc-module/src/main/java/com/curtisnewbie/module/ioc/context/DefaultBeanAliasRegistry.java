@@ -7,26 +7,48 @@ import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
+ * Implementation of {@link BeanAliasRegistry}
+ * <p>
+ * Besides the bean names of each alias, the alias is also resolved when it's registered, i.e., each alias is mapped to
+ * the only bean name that it points to, or a marker if it's ambiguous, so that {@link #getBeanName(String)} is only a
+ * single map lookup. An alias shared by multiple beans is resolved to the primary bean if there is exactly one of
+ * them.
+ * </p>
+ *
  * @author yongjie.zhuang
  */
 public class DefaultBeanAliasRegistry implements BeanAliasRegistry {
 
+    /** Marker of ambiguous alias, it's compared by reference */
+    private static final String AMBIGUOUS = new String("<ambiguous>");
+
     /**
      * Alias map, bean alias -> actual bean names
+     * <p>
+     * The sets are immutable, they are replaced when a new name is added to the alias
+     * </p>
      */
     protected final Map<String, Set<String>> beanAliasMap = new ConcurrentHashMap<>();
 
+    /**
+     * Resolved alias map, bean alias -> the only actual bean name, or {@link #AMBIGUOUS}
+     */
+    private final Map<String, String> resolvedAliasMap = new ConcurrentHashMap<>();
+
+    /** Names of the primary beans */
+    private final Set<String> primaryBeanNames = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
     @Override
     public String getBeanName(String beanNameOrAlias) {
-        Set<String> names = findNamesOfPossibleBeanAlias(beanNameOrAlias);
-        if (names.isEmpty())
-            return null;
-        int size = names.size();
-        if (size > 1) {
+        Objects.requireNonNull(beanNameOrAlias);
+
+        String name = resolvedAliasMap.get(beanNameOrAlias);
+        // no alias found, it's possible that it's not an alias at all, so we just return it
+        if (name == null)
+            return beanNameOrAlias;
+        if (name == AMBIGUOUS)
             throw new AmbiguousReferenceException();
-        }
-        // only return the first one
-        return names.iterator().next();
+        return name;
     }
 
     @Override
@@ -36,8 +58,64 @@ public class DefaultBeanAliasRegistry implements BeanAliasRegistry {
 
     @Override
     public void addAlias(String beanName, String alias) {
-        beanAliasMap.computeIfAbsent(alias, k -> new HashSet<>());
-        beanAliasMap.get(alias).add(beanName);
+        Objects.requireNonNull(beanName);
+        Objects.requireNonNull(alias);
+
+        // both maps are updated atomically for the alias
+        beanAliasMap.compute(alias, (k, names) -> {
+            Set<String> updated;
+            if (names == null) {
+                updated = Collections.singleton(beanName);
+            } else {
+                if (names.contains(beanName))
+                    return names;
+                updated = new HashSet<>(names);
+                updated.add(beanName);
+                updated = Collections.unmodifiableSet(updated);
+            }
+            resolvedAliasMap.put(alias, resolve(updated));
+            return updated;
+        });
+    }
+
+    @Override
+    public void markAsPrimary(String beanName) {
+        Objects.requireNonNull(beanName);
+        if (!primaryBeanNames.add(beanName))
+            return;
+
+        // resolve the aliases of this bean again
+        for (String alias : beanAliasMap.keySet()) {
+            beanAliasMap.computeIfPresent(alias, (k, names) -> {
+                if (names.contains(beanName))
+                    resolvedAliasMap.put(alias, resolve(names));
+                return names;
+            });
+        }
+    }
+
+    @Override
+    public boolean isPrimary(String beanName) {
+        Objects.requireNonNull(beanName);
+        return primaryBeanNames.contains(beanName);
+    }
+
+    /**
+     * Resolve the bean names of an alias to the only bean name, or the only primary bean name, else it's {@link
+     * #AMBIGUOUS}
+     */
+    private String resolve(Set<String> names) {
+        if (names.size() == 1)
+            return names.iterator().next();
+        String primary = null;
+        for (String n : names) {
+            if (primaryBeanNames.contains(n)) {
+                if (primary != null)
+                    return AMBIGUOUS;
+                primary = n;
+            }
+        }
+        return primary != null ? primary : AMBIGUOUS;
     }
 
     /**
@@ -56,13 +134,10 @@ public class DefaultBeanAliasRegistry implements BeanAliasRegistry {
     private Set<String> findNamesOfPossibleBeanAlias(String beanAlias) {
         Objects.requireNonNull(beanAlias);
 
-        Set<String> actualBeanNames;
-
+        Set<String> actualBeanNames = beanAliasMap.get(beanAlias);
         // no alias found, it's possible that it's not an alias at all, so we just return it
-        if (!beanAliasMap.containsKey(beanAlias) || (actualBeanNames = beanAliasMap.get(beanAlias)).isEmpty()) {
+        if (actualBeanNames == null)
             return Collections.singleton(beanAlias);
-        }
-        // actualBeanNames will not be null, since we checked whether the map contains the given key
         return actualBeanNames;
     }
 }
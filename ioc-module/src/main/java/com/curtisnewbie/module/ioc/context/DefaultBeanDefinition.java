@@ -1,5 +1,7 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
+
 import java.util.Objects;
 
 /**
@@ -9,12 +11,30 @@ public class DefaultBeanDefinition implements BeanDefinition {
 
     private final Class<?> clazz;
     private final String beanName;
+    private final boolean lazy;
+    private final BeanScope scope;
+    private final int poolSize;
+    private final long maxIdleMillis;
 
     public DefaultBeanDefinition(Class<?> clz, String beanName) {
+        this(clz, beanName, false);
+    }
+
+    public DefaultBeanDefinition(Class<?> clz, String beanName, boolean lazy) {
+        this(clz, beanName, lazy, BeanScope.SINGLETON, 0, 0L);
+    }
+
+    public DefaultBeanDefinition(Class<?> clz, String beanName, boolean lazy, BeanScope scope, int poolSize,
+                                 long maxIdleMillis) {
         Objects.requireNonNull(clz);
         Objects.requireNonNull(beanName);
+        Objects.requireNonNull(scope);
         this.clazz = clz;
         this.beanName = beanName;
+        this.lazy = lazy;
+        this.scope = scope;
+        this.poolSize = poolSize;
+        this.maxIdleMillis = maxIdleMillis;
     }
 
     @Override
@@ -26,4 +46,24 @@ public class DefaultBeanDefinition implements BeanDefinition {
     public String getName() {
         return beanName;
     }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    @Override
+    public BeanScope getScope() {
+        return scope;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public long getMaxIdleMillis() {
+        return maxIdleMillis;
+    }
 }
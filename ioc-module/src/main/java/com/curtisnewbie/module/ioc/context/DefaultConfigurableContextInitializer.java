@@ -1,6 +1,8 @@
 package com.curtisnewbie.module.ioc.context;
 
 import com.curtisnewbie.module.ioc.processing.*;
+import com.curtisnewbie.module.ioc.scan.ClassPathIndex;
+import com.curtisnewbie.module.ioc.scan.ScanCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,22 +22,34 @@ public class DefaultConfigurableContextInitializer implements ConfigurableContex
     private PropertyRegistry propertyRegistry;
 
     private boolean isLogMuted = false;
+    private int beanCreationParallelism = 1;
+    private ScanCache scanCache;
 
     @Override
     public ApplicationContext initialize(Class<?> mainClazz) {
+        // the default scanner and property registry share the same index, so the classpath is walked only once, the
+        // property registry that doesn't share it with the scanner only walks the properties files
+        ClassPathIndex classPathIndex = new ClassPathIndex();
+        classPathIndex.setScanCache(scanCache);
+        boolean isIndexShared = this.beanClassScanner == null;
+
         // fallback to default implementation
         if (this.beanNameGenerator == null)
-            this.beanNameGenerator = new BeanQualifiedNameGenerator();
+            this.beanNameGenerator = new CachingBeanNameGenerator(new BeanQualifiedNameGenerator());
         if (this.beanDependencyParser == null)
             this.beanDependencyParser = new AnnotatedBeanDependencyParser(beanNameGenerator);
         if (this.beanClassScanner == null)
-            this.beanClassScanner = new AnnotatedBeanClassScanner();
+            this.beanClassScanner = new IndexedBeanClassScanner(classPathIndex);
         if (this.beanInstantiationStrategy == null)
             this.beanInstantiationStrategy = new DefaultConstructorInstantiationStrategy();
         if (this.beanAliasParser == null)
             this.beanAliasParser = new ParentClassBeanAliasParser(beanNameGenerator);
-        if (this.propertyRegistry == null)
-            this.propertyRegistry = new ClassPathRefreshablePropertyRegistry();
+        if (this.propertyRegistry == null) {
+            ClassPathRefreshablePropertyRegistry registry = isIndexShared ?
+                    new ClassPathRefreshablePropertyRegistry(classPathIndex) : new ClassPathRefreshablePropertyRegistry();
+            registry.setScanCache(scanCache);
+            this.propertyRegistry = registry;
+        }
 
         DefaultApplicationContext ctx = new DefaultApplicationContext(
                 this.beanDependencyParser,
@@ -46,6 +60,7 @@ public class DefaultConfigurableContextInitializer implements ConfigurableContex
                 this.beanPostProcessorList,
                 this.propertyRegistry
         );
+        ctx.setBeanCreationParallelism(beanCreationParallelism);
         // mute its log if necessary
         if (isLogMuted && ctx.canMuteLog())
             ctx.muteLog();
@@ -53,6 +68,18 @@ public class DefaultConfigurableContextInitializer implements ConfigurableContex
         return ctx.initialize(mainClazz);
     }
 
+    @Override
+    public void setBeanCreationParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be greater than 0, but was " + parallelism);
+        this.beanCreationParallelism = parallelism;
+    }
+
+    @Override
+    public void setScanCache(ScanCache scanCache) {
+        this.scanCache = scanCache;
+    }
+
     @Override
     public void registerBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
         Objects.requireNonNull(beanPostProcessor);
@@ -1,11 +1,16 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
+import com.curtisnewbie.module.ioc.annotations.Lazy;
 import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.annotations.Primary;
+import com.curtisnewbie.module.ioc.annotations.Scope;
+import com.curtisnewbie.module.ioc.beans.DependentBeanInfo;
 import com.curtisnewbie.module.ioc.exceptions.TypeNotSupportedForInjectionException;
 import com.curtisnewbie.module.ioc.processing.*;
 
-import java.util.Objects;
-import java.util.Set;
+import java.lang.reflect.ParameterizedType;
+import java.util.*;
 
 import static java.lang.String.format;
 
@@ -22,15 +27,30 @@ public class DefaultInjectCapableBeanRegistry extends AbstractBeanRegistry {
     private final BeanClassScanner beanClzScanner;
     private final BeanAliasParser beanAliasParser;
     private final BeanInstantiationStrategy beanInstantiationStrategy;
+    /** parser of dependencies, it's used to plan the parallel instantiation (nullable) */
+    private final BeanDependencyParser beanDependencyParser;
 
     public DefaultInjectCapableBeanRegistry(BeanClassScanner beanClassScanner,
                                             BeanNameGenerator beanNameGenerator,
                                             BeanInstantiationStrategy beanInstantiationStrategy,
                                             BeanAliasParser beanAliasParser) {
+        this(beanClassScanner, beanNameGenerator, beanInstantiationStrategy, beanAliasParser, null);
+    }
+
+    /**
+     * @param beanDependencyParser parser of dependencies, the beans can only be instantiated in parallel when it's
+     *                             provided (nullable)
+     */
+    public DefaultInjectCapableBeanRegistry(BeanClassScanner beanClassScanner,
+                                            BeanNameGenerator beanNameGenerator,
+                                            BeanInstantiationStrategy beanInstantiationStrategy,
+                                            BeanAliasParser beanAliasParser,
+                                            BeanDependencyParser beanDependencyParser) {
         super(beanNameGenerator);
         this.beanClzScanner = beanClassScanner;
         this.beanAliasParser = beanAliasParser;
         this.beanInstantiationStrategy = beanInstantiationStrategy;
+        this.beanDependencyParser = beanDependencyParser;
     }
 
     @Override
@@ -41,6 +61,35 @@ public class DefaultInjectCapableBeanRegistry extends AbstractBeanRegistry {
         return beanInstantiationStrategy.instantiateBean(beanDefinition);
     }
 
+    private static BeanDefinition createBeanDefinition(Class<?> c, String beanName) {
+        boolean lazy = c.isAnnotationPresent(Lazy.class);
+        Scope scope = c.getAnnotation(Scope.class);
+        if (scope == null)
+            return new DefaultBeanDefinition(c, beanName, lazy);
+        if (scope.value() == BeanScope.POOLED && (scope.poolSize() < 1 || scope.maxIdleMillis() < 0)) {
+            throw new IllegalArgumentException(
+                    format("Pool size must be greater than 0, and max idle time must not be negative, type: %s",
+                            c.toString())
+            );
+        }
+        return new DefaultBeanDefinition(c, beanName, lazy, scope.value(), scope.poolSize(), scope.maxIdleMillis());
+    }
+
+    @Override
+    protected Collection<String> parseDependentBeanNames(BeanDefinition beanDefinition) {
+        if (beanDependencyParser == null)
+            return null;
+        List<String> dependentNames = new ArrayList<>();
+        for (DependentBeanInfo d : beanDependencyParser.parseDependencies(beanDefinition.getType())) {
+            // the lazy dependencies are resolved on the first method call, they don't affect the order
+            if (d.isLazy())
+                continue;
+            dependentNames.add(d.getDependentBeanType() instanceof ParameterizedType
+                    ? getBeanNameByType(d.getDependentBeanType()) : getBeanName(d.getDependentBeanName()));
+        }
+        return dependentNames;
+    }
+
     @Override
     protected void prepareBeanRegistry() {
         /*
@@ -81,7 +130,11 @@ public class DefaultInjectCapableBeanRegistry extends AbstractBeanRegistry {
             String beanName = generateBeanName(c);
 
             // register bean definition
-            registerBeanDefinition(beanName, new DefaultBeanDefinition(c, beanName));
+            registerBeanDefinition(beanName, createBeanDefinition(c, beanName));
+
+            // the primary bean is chosen when the aliases are shared by multiple beans
+            if (c.isAnnotationPresent(Primary.class))
+                markAsPrimary(beanName);
 
             // register the superClass and interfaces' name as this bean's alias
             Set<String> aliases = beanAliasParser.parseBeanAliases(c);
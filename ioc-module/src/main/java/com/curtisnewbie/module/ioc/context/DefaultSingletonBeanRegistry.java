@@ -1,8 +1,12 @@
 package com.curtisnewbie.module.ioc.context;
 
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
 import com.curtisnewbie.module.ioc.processing.*;
 import com.curtisnewbie.module.ioc.exceptions.*;
+import com.curtisnewbie.module.ioc.util.GenericTypeUtil;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -33,6 +37,64 @@ public class DefaultSingletonBeanRegistry extends DefaultBeanDefinitionRegistry
      */
     private final Map<String, Object> beanInstanceMap = new ConcurrentHashMap<>();
 
+    /**
+     * Index of beans by their types, it's built once the beans are instantiated, and it's dropped when any bean is
+     * registered afterwards (nullable)
+     */
+    private volatile BeanTypeIndex beanTypeIndex;
+
+    /**
+     * Table of beans compiled when the registry is sealed, it's null if the registry is not sealed yet
+     *
+     * @see #seal()
+     */
+    private volatile SealedBeanTable sealedBeanTable;
+
+    /**
+     * Class to the index of the singleton bean in {@link #sealedBeanTable}, or {@link SealedBeanTable#MISSING}, or
+     * {@link SealedBeanTable#AMBIGUOUS}
+     * <p>
+     * It's only used once the registry is sealed, each class is resolved against the {@link #sealedBeanTable} for once,
+     * then it's just a single lookup for {@link #getBeanByClass(Class)}. Only the index is cached, the values of a
+     * ClassValue are strongly held by the classes, they mustn't refer to the beans (or the registry itself), otherwise
+     * the discarded contexts are never collected.
+     * </p>
+     */
+    private final ClassValue<Integer> sealedBeans = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            SealedBeanTable table = sealedBeanTable;
+            int i = table.find(type);
+            if (i == SealedBeanTable.MISSING) {
+                String name = generateBeanName(type);
+                if (name != null)
+                    i = table.find(name);
+            }
+            if (i >= 0 && !type.isInstance(table.getBean(i)))
+                return SealedBeanTable.MISSING;
+            return i;
+        }
+    };
+
+    /**
+     * Parameterized type to the name of the bean resolved, it's only used once the registry is sealed
+     *
+     * @see #getBeanNameByType(Type)
+     */
+    private final Map<Type, String> sealedTypeNames = new ConcurrentHashMap<>();
+
+    /** Max number of names cached in {@link #missingBeanNames} */
+    private static final int MAX_MISSING_BEAN_NAMES = 4096;
+
+    /**
+     * Names (or aliases) that are known to be missing, it's only used once the registry is sealed, then the beans
+     * that are not found are never looked up again
+     */
+    private final Set<String> missingBeanNames = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /** Whether the {@link BeanNotFoundException} thrown should fill in the stack trace */
+    private volatile boolean stacklessLookupExceptions = false;
+
     /** mutex lock */
     private final Object mutex = new Object();
 
@@ -48,12 +110,21 @@ public class DefaultSingletonBeanRegistry extends DefaultBeanDefinitionRegistry
         Objects.requireNonNull(beanName);
         Objects.requireNonNull(bean);
 
-        synchronized (getMutex()) {
-            if (beanInstanceMap.get(beanName) != null) {
-                throw new SingletonBeanRegisteredException(beanName);
+        // the lazy beans are only created after the registry is sealed
+        final boolean sealed = isSealed();
+        if (sealed && !isLazyBean(beanName))
+            throw new BeanRegistrySealedException(beanName);
+        // the beans are registered without the mutex, such that different beans can be created in parallel
+        if (beanInstanceMap.putIfAbsent(beanName, bean) != null) {
+            throw new SingletonBeanRegisteredException(beanName);
+        }
+        beanNameSet.add(beanName);
+
+        // once sealed, the bean is only indexed when it's fully initialised, see addToBeanTypeIndex(...)
+        if (!sealed) {
+            synchronized (getMutex()) {
+                beanTypeIndex = null;
             }
-            beanInstanceMap.put(beanName, bean);
-            beanNameSet.add(beanName);
         }
     }
 
@@ -66,10 +137,59 @@ public class DefaultSingletonBeanRegistry extends DefaultBeanDefinitionRegistry
         registerSingletonBean(beanName, bean);
     }
 
+    /**
+     * Remove the singleton bean that is registered but failed to be initialised, such that it's never returned half-built
+     *
+     * @param beanName name of the bean
+     */
+    protected void discardSingletonBean(String beanName) {
+        if (beanInstanceMap.remove(beanName) == null)
+            return;
+        beanNameSet.remove(beanName);
+
+        // the sealed index only has the fully initialised beans
+        if (!isSealed()) {
+            synchronized (getMutex()) {
+                beanTypeIndex = null;
+            }
+        }
+    }
+
+    @Override
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        synchronized (getMutex()) {
+            if (isSealed())
+                throw new BeanRegistrySealedException(beanName);
+            super.registerBeanDefinition(beanName, beanDefinition);
+        }
+    }
+
+    @Override
+    public void addAlias(String beanName, String alias) {
+        synchronized (getMutex()) {
+            if (isSealed())
+                throw new BeanRegistrySealedException(beanName);
+            super.addAlias(beanName, alias);
+        }
+    }
+
+    @Override
+    public void markAsPrimary(String beanName) {
+        synchronized (getMutex()) {
+            if (isSealed())
+                throw new BeanRegistrySealedException(beanName);
+            super.markAsPrimary(beanName);
+        }
+    }
+
     @Override
     public Map<String, Object> getBeansOfType(Class<?> parentType) {
         Objects.requireNonNull(parentType);
 
+        BeanTypeIndex index = this.beanTypeIndex;
+        if (index != null)
+            return index.getBeansOfType(parentType);
+
         Map<String, Object> beanNameToObj = new HashMap<>();
         synchronized (getMutex()) {
             // if the requested type itself is a implementation bean
@@ -89,43 +209,356 @@ public class DefaultSingletonBeanRegistry extends DefaultBeanDefinitionRegistry
                     }
                 }
             }
-            return beanNameToObj;
+            return Collections.unmodifiableMap(beanNameToObj);
+        }
+    }
+
+    @Override
+    public <T> List<T> getBeanListOfType(Class<T> parentType) {
+        Objects.requireNonNull(parentType);
+
+        BeanTypeIndex index = this.beanTypeIndex;
+        if (index != null)
+            return index.getBeanListOfType(parentType);
+
+        List<T> beans = new ArrayList<>();
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object bean : getBeansOfType(parentType).values()) {
+            if (seen.add(bean))
+                beans.add(parentType.cast(bean));
+        }
+        return Collections.unmodifiableList(beans);
+    }
+
+    /**
+     * Build the index of beans by their types, such that {@link #getBeansOfType(Class)} and {@link
+     * #getBeanListOfType(Class)} are served without locking
+     * <p>
+     * It should be called once all the singleton beans are instantiated, the index is dropped when another bean is
+     * registered
+     * </p>
+     */
+    protected void buildBeanTypeIndex() {
+        synchronized (getMutex()) {
+            Map<String, Class<?>> beanTypes = new HashMap<>();
+            for (String beanName : beanNameSet) {
+                // the type in the definition is preferred, the instance may be a subclass or a proxy
+                BeanDefinition beanDefinition = getBeanDefinition(beanName);
+                Object bean = beanInstanceMap.get(beanName);
+                if (beanDefinition != null)
+                    beanTypes.put(beanName, beanDefinition.getType());
+                else if (bean != null)
+                    beanTypes.put(beanName, bean.getClass());
+            }
+            this.beanTypeIndex = BeanTypeIndex.build(beanTypes, beanInstanceMap);
+        }
+    }
+
+    /**
+     * Add the bean registered after the registry is sealed (e.g., a lazy bean) to the index, it should be called once
+     * the bean is fully initialised, only the entries of the bean's types are rebuilt
+     *
+     * @param beanName name of the bean
+     */
+    protected void addToBeanTypeIndex(String beanName) {
+        synchronized (getMutex()) {
+            BeanTypeIndex index = this.beanTypeIndex;
+            Object bean = beanInstanceMap.get(beanName);
+            Class<?> type = getBeanType(beanName);
+            if (index != null && bean != null && type != null)
+                this.beanTypeIndex = index.with(beanName, type, bean);
         }
     }
 
     @Override
     public boolean containsBean(String name) {
         Objects.requireNonNull(name);
+        SealedBeanTable table = this.sealedBeanTable;
+        if (table != null && resolveSealed(table.find(name)) >= 0)
+            return true;
+
         String implBeanName = getBeanName(name);
         if (implBeanName == null)
             return false;
-        return beanInstanceMap.containsKey(implBeanName);
+        return beanInstanceMap.containsKey(implBeanName) || isCreatedOnDemand(implBeanName);
     }
 
     @Override
     public boolean containsBean(Class<?> clazz) {
         Objects.requireNonNull(clazz);
+        SealedBeanTable table = this.sealedBeanTable;
+        if (table != null && resolveSealed(table.find(clazz)) >= 0)
+            return true;
         return containsBean(generateBeanName(clazz));
     }
 
     @Override
     public <T> T getBeanByClass(Class<T> clazz) {
         Objects.requireNonNull(clazz);
+        SealedBeanTable table = this.sealedBeanTable;
+        if (table != null) {
+            int i = sealedBeans.get(clazz);
+            if (i == SealedBeanTable.AMBIGUOUS)
+                throw new AmbiguousReferenceException();
+            if (i >= 0)
+                return clazz.cast(table.getBean(i));
+        }
         return clazz.cast(getBeanByName(generateBeanName(clazz)));
     }
 
+    @Override
+    public Object getBeanByType(Type type) {
+        Objects.requireNonNull(type);
+        if (type instanceof Class)
+            return getBeanByClass((Class<?>) type);
+        return getBeanByName(getBeanNameByType(type));
+    }
+
+    /**
+     * Get name of the bean that can be injected for the type, the type arguments are matched as well if the type is
+     * parameterized
+     * <p>
+     * For a parameterized type, the beans that implement/extend the raw type are the candidates, the type arguments
+     * are resolved against the supertypes of each candidate (see {@link GenericTypeUtil}). If none of them matches,
+     * e.g., the type arguments can't be resolved for the candidates, it falls back to resolving the raw type.
+     * </p>
+     *
+     * @param type either a {@link Class} or a {@link ParameterizedType}
+     * @return bean's name
+     */
+    public String getBeanNameByType(Type type) {
+        Objects.requireNonNull(type);
+        if (type instanceof Class)
+            return getBeanName(generateBeanName((Class<?>) type));
+        if (!(type instanceof ParameterizedType))
+            throw new TypeNotSupportedForInjectionException("Type is not supported for resolving beans: " + type.getTypeName());
+
+        // the beans never change once the registry is sealed, so the result can be cached
+        final boolean sealed = isSealed();
+        String beanName;
+        if (sealed && (beanName = sealedTypeNames.get(type)) != null)
+            return beanName;
+
+        beanName = resolveBeanNameByType((ParameterizedType) type);
+        if (sealed)
+            sealedTypeNames.put(type, beanName);
+        return beanName;
+    }
+
+    private String resolveBeanNameByType(ParameterizedType type) {
+        String rawName = generateBeanName((Class<?>) type.getRawType());
+        Set<String> candidates = new LinkedHashSet<>(getBeanNames(rawName));
+        if (beanNameSet.contains(rawName) || containsBeanDefinition(rawName))
+            candidates.add(rawName);
+
+        List<String> matched = new ArrayList<>(1);
+        for (String candidate : candidates) {
+            Class<?> candidateType = getBeanType(candidate);
+            if (candidateType != null && GenericTypeUtil.isAssignable(type, candidateType))
+                matched.add(candidate);
+        }
+        if (matched.isEmpty())
+            return getBeanName(rawName);
+        if (matched.size() == 1)
+            return matched.get(0);
+
+        // multiple beans match, choose the only primary one
+        String primary = null;
+        for (String m : matched) {
+            if (isPrimary(m)) {
+                if (primary != null)
+                    throw new AmbiguousReferenceException();
+                primary = m;
+            }
+        }
+        if (primary == null)
+            throw new AmbiguousReferenceException();
+        return primary;
+    }
+
+    /** Check whether the bean is defined as a lazy bean, see {@link BeanDefinition#isLazy()} */
+    protected boolean isLazyBean(String beanName) {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        return beanDefinition != null && beanDefinition.isLazy();
+    }
+
+    /** Check whether the bean is only created when it's looked up, i.e., it's lazy or it's not a singleton */
+    protected boolean isCreatedOnDemand(String beanName) {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        return beanDefinition != null && (beanDefinition.isLazy() || beanDefinition.getScope() != BeanScope.SINGLETON);
+    }
+
+    /** Get type of the bean, the type in the definition is preferred (nullable) */
+    private Class<?> getBeanType(String beanName) {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (beanDefinition != null)
+            return beanDefinition.getType();
+        Object bean = beanInstanceMap.get(beanName);
+        return bean != null ? bean.getClass() : null;
+    }
+
     @Override
     public Object getBeanByName(String aliasOrName) {
         Objects.requireNonNull(aliasOrName);
+        SealedBeanTable table = this.sealedBeanTable;
+        int i;
+        if (table != null && (i = resolveSealed(table.find(aliasOrName))) >= 0)
+            return table.getBean(i);
+
+        if (table != null && missingBeanNames.contains(aliasOrName))
+            throw beanNotFound(aliasOrName);
+
         final String beanName = getBeanName(aliasOrName);
         if (beanName == null)
-            throw BeanNotFoundException.forBeanName(aliasOrName);
+            throw beanNotFound(aliasOrName);
 
         // check if the instance exists, it may be manually registered or instantiated before
         Object bean = beanInstanceMap.get(beanName);
         return bean;
     }
 
+    @Override
+    public void releaseBean(String beanName, Object bean) {
+        Objects.requireNonNull(beanName);
+        Objects.requireNonNull(bean);
+        // singletons are never released
+    }
+
+    @Override
+    public void releaseBean(Class<?> clazz, Object bean) {
+        Objects.requireNonNull(clazz);
+        releaseBean(generateBeanName(clazz), bean);
+    }
+
+    @Override
+    public <T> T findBeanByClass(Class<T> clazz) {
+        Objects.requireNonNull(clazz);
+        SealedBeanTable table = this.sealedBeanTable;
+        if (table != null) {
+            int i = sealedBeans.get(clazz);
+            if (i == SealedBeanTable.AMBIGUOUS)
+                throw new AmbiguousReferenceException();
+            if (i >= 0)
+                return clazz.cast(table.getBean(i));
+        }
+        return clazz.cast(findBeanByName(generateBeanName(clazz)));
+    }
+
+    @Override
+    public Object findBeanByName(String aliasOrName) {
+        Objects.requireNonNull(aliasOrName);
+        SealedBeanTable table = this.sealedBeanTable;
+        int i;
+        if (table != null) {
+            if ((i = resolveSealed(table.find(aliasOrName))) >= 0)
+                return table.getBean(i);
+            if (missingBeanNames.contains(aliasOrName))
+                return null;
+        }
+        try {
+            return getBeanByName(aliasOrName);
+        } catch (BeanNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Set whether the {@link BeanNotFoundException} thrown by the lookups should be stackless, it's much cheaper to
+     * create, but the stack trace is lost, by default it's false
+     *
+     * @param stacklessLookupExceptions whether the exceptions should be stackless
+     */
+    public void setStacklessLookupExceptions(boolean stacklessLookupExceptions) {
+        this.stacklessLookupExceptions = stacklessLookupExceptions;
+    }
+
+    /**
+     * Create the {@link BeanNotFoundException} for the bean that is not found, once the registry is sealed, the name
+     * is remembered, such that it's not resolved again
+     *
+     * @param aliasOrName the name or alias used to look up the bean
+     */
+    protected BeanNotFoundException beanNotFound(String aliasOrName) {
+        if (isSealed() && missingBeanNames.size() < MAX_MISSING_BEAN_NAMES)
+            missingBeanNames.add(aliasOrName);
+        return stacklessLookupExceptions ? BeanNotFoundException.stacklessForBeanName(aliasOrName)
+                : BeanNotFoundException.forBeanName(aliasOrName);
+    }
+
+    /**
+     * Seal the registry, the beans can no longer be registered afterwards
+     * <p>
+     * The names, aliases and instances are compiled into an immutable {@link SealedBeanTable}, such that {@link
+     * #getBeanByName(String)} and {@link #getBeanByClass(Class)} are served from it without locking. The names or
+     * classes that are not in the table (e.g., the beans not found) are still resolved in the normal way.
+     * </p>
+     */
+    protected void seal() {
+        synchronized (getMutex()) {
+            if (isSealed())
+                return;
+
+            List<Object> beans = new ArrayList<>();
+            Map<Object, Integer> beanIndices = new IdentityHashMap<>();
+            Map<String, Integer> names = new HashMap<>();
+
+            Set<String> keys = new HashSet<>(beanNameSet);
+            keys.addAll(beanAliasMap.keySet());
+            for (String key : keys) {
+                String beanName;
+                try {
+                    beanName = getBeanName(key);
+                } catch (AmbiguousReferenceException e) {
+                    names.put(key, SealedBeanTable.AMBIGUOUS);
+                    continue;
+                }
+                Object bean = beanName != null ? beanInstanceMap.get(beanName) : null;
+                if (bean == null)
+                    continue;
+                Integer i = beanIndices.get(bean);
+                if (i == null) {
+                    i = beans.size();
+                    beans.add(bean);
+                    beanIndices.put(bean, i);
+                }
+                names.put(key, i);
+            }
+
+            // classes are resolved through their names, so it's always the same as looking up by the generated names
+            Map<Class<?>, Integer> classes = new HashMap<>();
+            for (String beanName : beanNameSet) {
+                BeanDefinition beanDefinition = getBeanDefinition(beanName);
+                Object bean = beanInstanceMap.get(beanName);
+                Class<?> type = beanDefinition != null ? beanDefinition.getType() : bean.getClass();
+                for (Class<?> c : BeanTypeIndex.supertypesOf(type)) {
+                    if (classes.containsKey(c))
+                        continue;
+                    String name = generateBeanName(c);
+                    Integer i = name != null ? names.get(name) : null;
+                    if (i != null)
+                        classes.put(c, i);
+                }
+            }
+            this.sealedBeanTable = new SealedBeanTable(names, classes, beans);
+        }
+    }
+
+    /**
+     * Check whether the registry is sealed
+     *
+     * @see #seal()
+     */
+    public boolean isSealed() {
+        return sealedBeanTable != null;
+    }
+
+    /** Resolve the result of {@link SealedBeanTable}, the ambiguous reference is rejected */
+    private static int resolveSealed(int i) {
+        if (i == SealedBeanTable.AMBIGUOUS)
+            throw new AmbiguousReferenceException();
+        return i;
+    }
+
     protected String generateBeanName(Class<?> clazz) {
         return beanNameGenerator.generateBeanName(clazz);
     }
@@ -0,0 +1,128 @@
+package com.curtisnewbie.module.ioc.context;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Graph of dependencies between beans
+ * <p>
+ * Each bean name (or alias) is assigned a dense int id, the names are only used to look up the ids, the edges are
+ * stored as arrays of ids (one array per bean), and the reachability is checked by a depth-first search with a bitset
+ * of the beans visited. Both the stack and the bitset are reused, so checking the reachability doesn't allocate
+ * anything once they are large enough.
+ * </p>
+ * <p>
+ * This class is not thread-safe, it must be synchronized externally.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class DependencyGraph {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** bean name to id */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /** id to ids of the beans that it depends on, only the first {@code edgeCounts[id]} elements are used */
+    private int[][] edges = new int[INITIAL_CAPACITY][];
+    private int[] edgeCounts = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /** bitset of the beans visited, and the stack used by {@link #isReachable(String, String)} */
+    private long[] visited = new long[1];
+    private int[] stack = new int[INITIAL_CAPACITY];
+
+    /**
+     * Get id of the bean, a new id is assigned if the bean doesn't have one yet
+     *
+     * @param beanName name (or alias) of the bean
+     * @return id
+     */
+    int idOf(String beanName) {
+        Objects.requireNonNull(beanName);
+        Integer id = ids.get(beanName);
+        if (id != null)
+            return id;
+
+        if (size == edges.length) {
+            int capacity = size * 2;
+            edges = Arrays.copyOf(edges, capacity);
+            edgeCounts = Arrays.copyOf(edgeCounts, capacity);
+        }
+        ids.put(beanName, size);
+        return size++;
+    }
+
+    /**
+     * Add a dependency
+     *
+     * @param beanName          bean
+     * @param dependentBeanName the bean that it depends on
+     */
+    void addEdge(String beanName, String dependentBeanName) {
+        int from = idOf(beanName);
+        int to = idOf(dependentBeanName);
+
+        int count = edgeCounts[from];
+        int[] adj = edges[from];
+        if (adj == null) {
+            adj = edges[from] = new int[4];
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (adj[i] == to)
+                    return;
+            }
+            if (count == adj.length)
+                adj = edges[from] = Arrays.copyOf(adj, count * 2);
+        }
+        adj[count] = to;
+        edgeCounts[from] = count + 1;
+    }
+
+    /**
+     * Check whether the bean is dependent on the other bean, either directly or indirectly
+     *
+     * @param beanName          bean
+     * @param dependentBeanName the bean that it might depend on
+     */
+    boolean isReachable(String beanName, String dependentBeanName) {
+        Integer from = ids.get(beanName);
+        Integer to = ids.get(dependentBeanName);
+        if (from == null || to == null)
+            return false;
+        return isReachable(from, to);
+    }
+
+    private boolean isReachable(int from, int to) {
+        int words = (size + 63) >>> 6;
+        if (visited.length < words)
+            visited = new long[Math.max(words, visited.length * 2)];
+        else
+            Arrays.fill(visited, 0, words, 0L);
+        if (stack.length < size)
+            stack = new int[Math.max(size, stack.length * 2)];
+
+        // each bean is pushed at most once, so the stack never grows beyond the number of beans
+        int top = 0;
+        stack[top++] = from;
+        visited[from >>> 6] |= 1L << from;
+        while (top > 0) {
+            int current = stack[--top];
+            int[] adj = edges[current];
+            for (int i = 0, n = edgeCounts[current]; i < n; i++) {
+                int next = adj[i];
+                if (next == to)
+                    return true;
+                long bit = 1L << next;
+                if ((visited[next >>> 6] & bit) == 0) {
+                    visited[next >>> 6] |= bit;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -2,11 +2,22 @@ package com.curtisnewbie.module.ioc.context;
 
 import com.curtisnewbie.module.ioc.processing.BeanPostProcessor;
 
+import java.lang.reflect.Type;
+
 /**
  * @author yongjie.zhuang
  */
 public interface InjectCapableBeanRegistry extends SingletonBeanRegistry, BeanAliasRegistry, BeanDefinitionRegistry {
 
+    /**
+     * Get name of the bean that can be injected for the type, the type arguments are matched as well if the type is
+     * parameterized
+     *
+     * @param type either a {@link Class} or a {@link java.lang.reflect.ParameterizedType}
+     * @return bean's name
+     */
+    String getBeanNameByType(Type type);
+
     /**
      * Register a dependency of this bean
      */
@@ -0,0 +1,113 @@
+package com.curtisnewbie.module.ioc.context;
+
+import java.util.*;
+
+/**
+ * Immutable table of beans, it's compiled from the names, aliases and instances once the registry is sealed
+ * <p>
+ * Both the names (including aliases) and the classes are kept in open-addressing tables with linear probing, each slot
+ * points to an index in the array of beans, or {@link #AMBIGUOUS} if the name/class refers to multiple beans. The
+ * lookups are plain array reads, classes are compared by identity, so the bean names don't need to be generated for
+ * them.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class SealedBeanTable {
+
+    /** The name/class is not in the table */
+    static final int MISSING = -1;
+
+    /** The name/class refers to multiple beans */
+    static final int AMBIGUOUS = -2;
+
+    private final String[] nameKeys;
+    private final int[] nameSlots;
+    private final Class<?>[] classKeys;
+    private final int[] classSlots;
+    private final Object[] beans;
+
+    /**
+     * @param names   name (or alias) to index of the bean, or {@link #AMBIGUOUS}
+     * @param classes class to index of the bean, or {@link #AMBIGUOUS}
+     * @param beans   the beans
+     */
+    SealedBeanTable(Map<String, Integer> names, Map<Class<?>, Integer> classes, List<Object> beans) {
+        this.beans = beans.toArray();
+
+        this.nameKeys = new String[capacityFor(names.size())];
+        this.nameSlots = new int[nameKeys.length];
+        for (Map.Entry<String, Integer> e : names.entrySet()) {
+            int mask = nameKeys.length - 1;
+            int i = spread(e.getKey().hashCode()) & mask;
+            while (nameKeys[i] != null)
+                i = (i + 1) & mask;
+            nameKeys[i] = e.getKey();
+            nameSlots[i] = e.getValue();
+        }
+
+        this.classKeys = new Class<?>[capacityFor(classes.size())];
+        this.classSlots = new int[classKeys.length];
+        for (Map.Entry<Class<?>, Integer> e : classes.entrySet()) {
+            int mask = classKeys.length - 1;
+            int i = spread(System.identityHashCode(e.getKey())) & mask;
+            while (classKeys[i] != null)
+                i = (i + 1) & mask;
+            classKeys[i] = e.getKey();
+            classSlots[i] = e.getValue();
+        }
+    }
+
+    /**
+     * Find the bean by name or alias
+     *
+     * @return index of the bean, {@link #MISSING} or {@link #AMBIGUOUS}
+     */
+    int find(String name) {
+        final String[] keys = this.nameKeys;
+        final int mask = keys.length - 1;
+        int i = spread(name.hashCode()) & mask;
+        String k;
+        while ((k = keys[i]) != null) {
+            if (k.equals(name))
+                return nameSlots[i];
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Find the bean by class
+     *
+     * @return index of the bean, {@link #MISSING} or {@link #AMBIGUOUS}
+     */
+    int find(Class<?> clazz) {
+        final Class<?>[] keys = this.classKeys;
+        final int mask = keys.length - 1;
+        int i = spread(System.identityHashCode(clazz)) & mask;
+        Class<?> k;
+        while ((k = keys[i]) != null) {
+            if (k == clazz)
+                return classSlots[i];
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /** Get bean by the index returned by {@code find(...)} */
+    Object getBean(int index) {
+        return beans[index];
+    }
+
+    /** Capacity that is a power of two, and keeps the load factor at or below 0.5 */
+    private static int capacityFor(int size) {
+        int cap = 2;
+        while (cap < size * 2)
+            cap <<= 1;
+        return cap;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
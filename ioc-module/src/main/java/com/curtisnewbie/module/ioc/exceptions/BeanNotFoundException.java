@@ -23,4 +23,24 @@ public class BeanNotFoundException extends ContextException {
     public static BeanNotFoundException forBeanName(String beanName) {
         return new BeanNotFoundException(String.format("Bean '%s' is not found", beanName));
     }
+
+    /**
+     * Create exception without stack trace, it's much cheaper to create, e.g., when the beans are probed frequently
+     */
+    public static BeanNotFoundException stacklessForBeanName(String beanName) {
+        return new StacklessBeanNotFoundException(String.format("Bean '%s' is not found", beanName));
+    }
+
+    /** BeanNotFoundException that doesn't fill in the stack trace */
+    private static final class StacklessBeanNotFoundException extends BeanNotFoundException {
+
+        private StacklessBeanNotFoundException(String msg) {
+            super(msg);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package com.curtisnewbie.module.ioc.exceptions;
+
+
+/**
+ * Exception indicating that the bean registry has been sealed, beans can no longer be registered
+ *
+ * @author yongjie.zhuang
+ */
+public class BeanRegistrySealedException extends ContextException {
+
+    public BeanRegistrySealedException() {
+        super("Bean registry has been sealed");
+    }
+
+    public BeanRegistrySealedException(String beanName) {
+        super("Bean registry has been sealed, unable to register bean " + beanName);
+    }
+}
@@ -0,0 +1,93 @@
+package com.curtisnewbie.module.ioc.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Index of classes annotated with {@link com.curtisnewbie.module.ioc.annotations.MBean}, it's generated by {@link
+ * MBeanIndexProcessor} at compile time
+ * <p>
+ * Each line of the index file is the binary name of a bean class (e.g., {@code com.example.Outer$Inner}) such that it
+ * can be loaded by {@link Class#forName(String)} directly. Lines starting with {@code #} are comments. Anything after
+ * {@code :} is ignored, it's the supertypes written by the older versions.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see MBeanIndexProcessor
+ * @see com.curtisnewbie.module.ioc.processing.IndexedBeanClassScanner
+ */
+public final class MBeanIndex {
+
+    /** Location of the index file */
+    public static final String INDEX_LOCATION = "META-INF/ioc-module/mbean.index";
+
+    static final char CLASS_SEPARATOR = ':';
+    static final char COMMENT = '#';
+
+    /** names of the bean classes */
+    private final Set<String> beanClassNames;
+
+    private MBeanIndex(Set<String> beanClassNames) {
+        this.beanClassNames = beanClassNames;
+    }
+
+    /**
+     * Load and merge all the index files that are visible to the given classloader
+     *
+     * @param classLoader classloader
+     * @return index (nullable, if no index file is found)
+     */
+    public static MBeanIndex load(ClassLoader classLoader) {
+        Objects.requireNonNull(classLoader);
+        Enumeration<URL> urls;
+        try {
+            urls = classLoader.getResources(INDEX_LOCATION);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to find " + INDEX_LOCATION, e);
+        }
+        if (!urls.hasMoreElements())
+            return null;
+
+        Set<String> beanClassNames = new LinkedHashSet<>();
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            try (InputStream in = url.openStream()) {
+                parse(in, beanClassNames);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to load " + url, e);
+            }
+        }
+        return new MBeanIndex(beanClassNames);
+    }
+
+    /**
+     * Parse an index file
+     *
+     * @param in             input stream of the index file
+     * @param beanClassNames set that collects the names of the bean classes
+     */
+    static void parse(InputStream in, Set<String> beanClassNames) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == COMMENT)
+                continue;
+
+            int sep = line.indexOf(CLASS_SEPARATOR);
+            beanClassNames.add(sep < 0 ? line : line.substring(0, sep));
+        }
+    }
+
+    /**
+     * Get names of the indexed bean classes
+     */
+    public Set<String> getBeanClassNames() {
+        return Collections.unmodifiableSet(beanClassNames);
+    }
+}
@@ -0,0 +1,148 @@
+package com.curtisnewbie.module.ioc.index;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Annotation processor that writes an {@link MBeanIndex} of the classes annotated with {@link MBean} (either directly
+ * or through a composed annotation) at compile time
+ * <p>
+ * The processor is registered in {@code META-INF/services}, it's picked up by javac as long as ioc-module is on the
+ * classpath (or processor path) of the compilation. Since the index only covers the classes of a single compilation,
+ * every module that declares beans should be compiled with this processor.
+ * </p>
+ * <p>
+ * On incremental compilation, only the recompiled classes are processed, so the index is merged with the existing one
+ * in the output directory, the beans in it are kept as long as they still exist and are still annotated with {@link
+ * MBean}.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see MBeanIndex
+ */
+public class MBeanIndexProcessor extends AbstractProcessor {
+
+    private static final String MBEAN_NAME = MBean.class.getName();
+
+    /** binary names of the bean classes, collected across rounds */
+    private final Set<String> beanClassNames = new TreeSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // composed annotations must be inspected as well, so we can't just declare @MBean here
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (TypeElement te : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collectBeans(te);
+        }
+        // don't claim the annotations, other processors may need them as well
+        return false;
+    }
+
+    private void collectBeans(TypeElement te) {
+        if (isBean(te))
+            beanClassNames.add(binaryName(te));
+        // nested types
+        for (TypeElement nested : ElementFilter.typesIn(te.getEnclosedElements())) {
+            collectBeans(nested);
+        }
+    }
+
+    private boolean isBean(TypeElement te) {
+        return te.getKind() != ElementKind.ANNOTATION_TYPE && isMBeanPresent(te);
+    }
+
+    /** check if @MBean is present, either directly or through a composed annotation */
+    private boolean isMBeanPresent(TypeElement te) {
+        for (AnnotationMirror am : te.getAnnotationMirrors()) {
+            TypeElement annt = (TypeElement) am.getAnnotationType().asElement();
+            if (MBEAN_NAME.contentEquals(annt.getQualifiedName()))
+                return true;
+
+            for (AnnotationMirror composed : annt.getAnnotationMirrors()) {
+                if (MBEAN_NAME.contentEquals(((TypeElement) composed.getAnnotationType().asElement()).getQualifiedName()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private String binaryName(TypeElement te) {
+        return processingEnv.getElementUtils().getBinaryName(te).toString();
+    }
+
+    private void writeIndex() {
+        // the existing index is rewritten even if there is no bean left, e.g., the only bean is removed
+        boolean merged = mergeExistingIndex();
+        if (beanClassNames.isEmpty() && !merged)
+            return;
+        try {
+            FileObject fo = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", MBeanIndex.INDEX_LOCATION);
+            try (Writer w = new OutputStreamWriter(fo.openOutputStream(), StandardCharsets.UTF_8)) {
+                w.write(MBeanIndex.COMMENT + " Generated by " + MBeanIndexProcessor.class.getName() + "\n");
+                for (String name : beanClassNames) {
+                    w.write(name);
+                    w.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + MBeanIndex.INDEX_LOCATION + ", " + e.getMessage());
+        }
+    }
+
+    /**
+     * Merge the beans in the index written by the previous compilation, the ones that no longer exist or are no
+     * longer annotated with {@link MBean} are dropped
+     *
+     * @return whether there is an existing index
+     */
+    private boolean mergeExistingIndex() {
+        Set<String> existing = new LinkedHashSet<>();
+        try {
+            FileObject fo = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", MBeanIndex.INDEX_LOCATION);
+            try (InputStream in = fo.openInputStream()) {
+                MBeanIndex.parse(in, existing);
+            }
+        } catch (IOException e) {
+            // no existing index, it's a full compilation
+            return false;
+        }
+        for (String name : existing) {
+            if (beanClassNames.contains(name))
+                continue;
+            // binary name to canonical name, e.g., com.example.Outer$Inner -> com.example.Outer.Inner
+            TypeElement te = processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+            if (te != null && binaryName(te).equals(name) && isBean(te))
+                beanClassNames.add(name);
+        }
+        return true;
+    }
+}
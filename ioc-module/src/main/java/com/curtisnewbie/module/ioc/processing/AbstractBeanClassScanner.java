@@ -1,33 +1,145 @@
 package com.curtisnewbie.module.ioc.processing;
 
 
+import com.curtisnewbie.module.ioc.config.PackageScoped;
+import com.curtisnewbie.module.ioc.scan.ClassNameFilter;
+import com.curtisnewbie.module.ioc.scan.ScanReport;
 import com.curtisnewbie.module.ioc.util.ClassLoaderHolder;
+import com.curtisnewbie.module.ioc.util.PackageScopeUtil;
 import com.curtisnewbie.module.ioc.util.ReflectionsScanUtil;
 
+import org.reflections.Reflections;
+
 import java.lang.annotation.Annotation;
 import java.util.*;
 
 /**
  * Abstract implementation of {@link BeanClassScanner}
+ * <p>
+ * Besides the base packages, the classes can be included or excluded by patterns (see {@link ClassNameFilter}), the
+ * classes rejected are filtered by their paths before they are parsed or loaded.
+ * </p>
  *
  * @author yongjie.zhuang
  */
-public abstract class AbstractBeanClassScanner implements BeanClassScanner {
+public abstract class AbstractBeanClassScanner implements BeanClassScanner, PackageScoped, ScanReportProvider {
 
     protected ClassLoader classLoader;
 
-    protected static final String ROOT_PATH = "";
+    protected static final String ROOT_PATH = PackageScopeUtil.ROOT_PACKAGE;
+
+    /** base packages to scan, by default it's the whole classpath */
+    protected volatile Set<String> basePackages = Collections.singleton(ROOT_PATH);
+
+    /** number of threads used for scanning */
+    protected volatile int parallelism = ReflectionsScanUtil.DEFAULT_PARALLELISM;
+
+    /** filter of classes compiled from the include and exclude patterns */
+    protected volatile ClassNameFilter classNameFilter = ClassNameFilter.ACCEPT_ALL;
+
+    /** report of the last scan */
+    protected volatile ScanReport scanReport;
+
+    private Set<String> includePatterns = Collections.emptySet();
+    private Set<String> excludePatterns = Collections.emptySet();
 
     protected <T extends Annotation> Set<Class<?>> scanClassWithAnnotation(Class<T> annotationClz) {
         return ReflectionsScanUtil.scanClassWithAnnotation(annotationClz,
-                ROOT_PATH,
-                getIfNotNullElseDefaultClassLoader());
+                ReflectionsScanUtil.getReflectionsForAnnotationScanning(basePackages,
+                        getIfNotNullElseDefaultClassLoader(),
+                        parallelism,
+                        classNameFilter::accepts));
     }
 
     protected Set<Class<?>> scanSubClassOf(List<Class<?>> parentClz) {
-        return ReflectionsScanUtil.scanSubClassesOf(parentClz,
-                ROOT_PATH,
-                getIfNotNullElseDefaultClassLoader());
+        Reflections r = ReflectionsScanUtil.getReflectionsForSubTypeScanning(basePackages,
+                getIfNotNullElseDefaultClassLoader(),
+                parallelism,
+                classNameFilter::accepts);
+        Set<Class<?>> clzSet = new HashSet<>();
+        for (Class<?> c : parentClz) {
+            clzSet.addAll(ReflectionsScanUtil.scanSubClassOf(c, r));
+        }
+        return clzSet;
+    }
+
+    @Override
+    public void setBasePackages(Set<String> basePackages) {
+        Objects.requireNonNull(basePackages);
+        this.basePackages = PackageScopeUtil.normalize(basePackages);
+    }
+
+    /**
+     * Set the number of threads used for scanning, the classpath entries are scanned concurrently when it's greater
+     * than 1, by default it's the number of available processors
+     *
+     * @param parallelism parallelism level
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be greater than 0, but was " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the include patterns, if any, only the classes that match these patterns are scanned, by default all classes
+     * in the base packages are scanned
+     *
+     * @param includePatterns patterns of packages or class names, e.g., {@code com.curtisnewbie.service} or {@code
+     *                        com.curtisnewbie.Gen*}
+     * @see ClassNameFilter
+     */
+    public synchronized void setIncludePatterns(Collection<String> includePatterns) {
+        Objects.requireNonNull(includePatterns);
+        this.includePatterns = new HashSet<>(includePatterns);
+        setClassNameFilter(ClassNameFilter.of(this.includePatterns, this.excludePatterns));
+    }
+
+    /**
+     * Set the exclude patterns, the classes that match these patterns are not scanned, e.g., the generated code or
+     * the vendored packages
+     *
+     * @param excludePatterns patterns of packages or class names, e.g., {@code com.curtisnewbie.generated} or {@code
+     *                        com.curtisnewbie.Gen*}
+     * @see ClassNameFilter
+     */
+    public synchronized void setExcludePatterns(Collection<String> excludePatterns) {
+        Objects.requireNonNull(excludePatterns);
+        this.excludePatterns = new HashSet<>(excludePatterns);
+        setClassNameFilter(ClassNameFilter.of(this.includePatterns, this.excludePatterns));
+    }
+
+    /**
+     * Set the filter of classes, it's called whenever the include or exclude patterns are changed
+     *
+     * @param classNameFilter filter
+     */
+    protected void setClassNameFilter(ClassNameFilter classNameFilter) {
+        this.classNameFilter = classNameFilter;
+    }
+
+    /**
+     * Check if the class of the given name is within the base packages
+     *
+     * @param className class name
+     */
+    protected boolean isInBasePackages(String className) {
+        return PackageScopeUtil.isInPackages(className, basePackages);
+    }
+
+    /**
+     * Check if the class of the given name is within the base packages and accepted by the include and exclude
+     * patterns
+     *
+     * @param className class name
+     */
+    protected boolean isInScope(String className) {
+        return classNameFilter.accepts(className) && isInBasePackages(className);
+    }
+
+    @Override
+    public ScanReport getScanReport() {
+        return scanReport;
     }
 
     @Override
@@ -3,6 +3,7 @@ package com.curtisnewbie.module.ioc.processing;
 
 import com.curtisnewbie.module.ioc.annotations.Dependency;
 import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.scan.ScanRecorder;
 
 import java.util.*;
 
@@ -17,6 +18,15 @@ public class AnnotatedBeanClassScanner extends AbstractBeanClassScanner implemen
 
     @Override
     public Set<Class<?>> scanBeanClasses() {
-        return scanClassWithAnnotation(MBean.class);
+        long start = System.nanoTime();
+        Set<Class<?>> beanClasses = scanClassWithAnnotation(MBean.class);
+
+        // the entries walked by Reflections are not visible here
+        ScanRecorder recorder = new ScanRecorder();
+        recorder.recordAnnotationHits(beanClasses.size());
+        recorder.recordClassesLoaded(beanClasses.size());
+        recorder.recordElapsedNanos(System.nanoTime() - start);
+        this.scanReport = recorder.toReport();
+        return beanClasses;
     }
 }
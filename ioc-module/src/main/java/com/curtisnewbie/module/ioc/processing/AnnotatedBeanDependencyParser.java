@@ -14,6 +14,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
 
 /**
@@ -28,19 +30,38 @@ public class AnnotatedBeanDependencyParser implements BeanDependencyParser {
     )));
     private final BeanNameGenerator beanNameGenerator;
 
+    /**
+     * Dependencies parsed for each class, the classes are parsed only once, such that creating the non-singleton beans
+     * doesn't introspect their classes again
+     */
+    private final ClassValue<List<DependentBeanInfo>> dependencies = new ClassValue<List<DependentBeanInfo>>() {
+        @Override
+        protected List<DependentBeanInfo> computeValue(Class<?> type) {
+            return Collections.unmodifiableList(doParseDependencies(type));
+        }
+    };
+
     public AnnotatedBeanDependencyParser(BeanNameGenerator beanNameGenerator) {
         this.beanNameGenerator = beanNameGenerator;
     }
 
-    private Map<String, List<BeanPropertyInfo>> parseDependenciesOfClass(Class<?> clz) {
+    /**
+     * Parse the dependencies of the class, grouped by the types required, and whether they are lazy
+     * <p>
+     * The type is the generic type of the field if it's parameterized, e.g., {@code Repository<User>}, such that the
+     * beans sharing the same raw type can be told apart by the type arguments, otherwise it's just the property type
+     * </p>
+     */
+    private Map<DependencyKey, List<BeanPropertyInfo>> parseDependenciesOfClass(Class<?> clz) {
         Objects.requireNonNull(clz, "class is null, unable to parse dependencies");
-        Map<String, List<BeanPropertyInfo>> dependencies = new HashMap<>();
+        Map<DependencyKey, List<BeanPropertyInfo>> dependencies = new LinkedHashMap<>();
         Map<String, PropertyDescriptor> pdMap = BeansUtil.introspectPropertyDescriptorMap(clz);
 
         Field[] fields = clz.getDeclaredFields();
         for (Field f : fields) {
             // the field has a @Dependency annotation & it contains a writer method
-            if (isInjectableAnnotationPresent(f.getDeclaredAnnotations())) {
+            Dependency dependency = findInjectableAnnotation(f.getDeclaredAnnotations());
+            if (dependency != null) {
                 PropertyDescriptor pd = pdMap.get(f.getName());
                 // if pd == null, means there is not getter and setter for this field at all
                 // as long as the writerMethod is missing, this field is not injectable
@@ -67,10 +88,18 @@ public class AnnotatedBeanDependencyParser implements BeanDependencyParser {
                             "Collections are not supported for dependency injection, " +
                                     "field: " + f.getName());
                 }
-                String dependentBeanName = beanNameGenerator.generateBeanName(propType);
-                // key: dependent's type, value: list of propertyInfo of this dependency type
-                dependencies.computeIfAbsent(dependentBeanName, k -> new ArrayList<>());
-                dependencies.get(dependentBeanName).add(new DefaultBeanPropertyInfo(f.getName(), pd));
+                if (dependency.lazy() && !propType.isInterface()) {
+                    throw new TypeNotSupportedForInjectionException(
+                            String.format("Lazy dependency is only supported for interfaces, field: %s, type: %s",
+                                    f.getName(),
+                                    propType.getSimpleName()
+                            ));
+                }
+                Type dependentType = f.getGenericType() instanceof ParameterizedType && f.getType() == propType
+                        ? f.getGenericType() : propType;
+                // key: dependent's type (and whether it's lazy), value: list of propertyInfo of this dependency type
+                dependencies.computeIfAbsent(new DependencyKey(dependentType, dependency.lazy()), k -> new ArrayList<>())
+                        .add(new DefaultBeanPropertyInfo(f.getName(), pd));
             }
         }
         return dependencies;
@@ -78,10 +107,19 @@ public class AnnotatedBeanDependencyParser implements BeanDependencyParser {
 
     @Override
     public List<DependentBeanInfo> parseDependencies(Class<?> beanClazz) {
-        Map<String, List<BeanPropertyInfo>> dependencyInfo = parseDependenciesOfClass(beanClazz);
+        Objects.requireNonNull(beanClazz, "class is null, unable to parse dependencies");
+        return dependencies.get(beanClazz);
+    }
+
+    private List<DependentBeanInfo> doParseDependencies(Class<?> beanClazz) {
+        Map<DependencyKey, List<BeanPropertyInfo>> dependencyInfo = parseDependenciesOfClass(beanClazz);
         List<DependentBeanInfo> dependentBeanInfos = new ArrayList<>();
-        for (Map.Entry<String, List<BeanPropertyInfo>> entry : dependencyInfo.entrySet()) {
-            dependentBeanInfos.add(new DefaultDependentBeanInfo(entry.getKey(), entry.getValue()));
+        for (Map.Entry<DependencyKey, List<BeanPropertyInfo>> entry : dependencyInfo.entrySet()) {
+            Type type = entry.getKey().type;
+            Class<?> rawType = type instanceof ParameterizedType
+                    ? (Class<?>) ((ParameterizedType) type).getRawType() : (Class<?>) type;
+            dependentBeanInfos.add(new DefaultDependentBeanInfo(beanNameGenerator.generateBeanName(rawType), type,
+                    entry.getValue(), entry.getKey().lazy));
         }
         return dependentBeanInfos;
     }
@@ -133,21 +171,46 @@ public class AnnotatedBeanDependencyParser implements BeanDependencyParser {
         return false;
     }
 
-    /** check if an injectable annotation is present */
-    private boolean isInjectableAnnotationPresent(Annotation[] annotations) {
+    /** find the injectable annotation, it's either present on the field, or on a composed annotation (nullable) */
+    private Dependency findInjectableAnnotation(Annotation[] annotations) {
         for (Annotation annt : annotations) {
             // the annotation itself is a supported annotation
             if (injectableAnnotations.contains(annt.annotationType())) {
-                return true;
+                return (Dependency) annt;
             }
 
             // for composed annotation, see if this annotation has any other annotation that is supported
             for (Annotation composed : annt.annotationType().getDeclaredAnnotations()) {
                 if (injectableAnnotations.contains(composed.annotationType())) {
-                    return true;
+                    return (Dependency) composed;
                 }
             }
         }
-        return false;
+        return null;
+    }
+
+    /** Key of the dependencies, the lazy and eager dependencies of the same type are injected separately */
+    private static final class DependencyKey {
+
+        private final Type type;
+        private final boolean lazy;
+
+        private DependencyKey(Type type, boolean lazy) {
+            this.type = type;
+            this.lazy = lazy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DependencyKey)) return false;
+            DependencyKey that = (DependencyKey) o;
+            return lazy == that.lazy && type.equals(that.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, lazy);
+        }
     }
 }
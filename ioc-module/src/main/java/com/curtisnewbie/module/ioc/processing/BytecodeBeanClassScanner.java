@@ -0,0 +1,121 @@
+package com.curtisnewbie.module.ioc.processing;
+
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.scan.ClassFileParser;
+import com.curtisnewbie.module.ioc.scan.ClassNameFilter;
+import com.curtisnewbie.module.ioc.scan.ClassPathIndex;
+import com.curtisnewbie.module.ioc.scan.ClassPathScanResult;
+import com.curtisnewbie.module.ioc.scan.ClassPathWalker;
+import com.curtisnewbie.module.ioc.scan.ScanCache;
+import com.curtisnewbie.module.ioc.scan.ScanRecorder;
+import com.curtisnewbie.module.ioc.util.LogUtil;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of {@link BeanClassScanner} that scans beans annotated with {@link MBean} by parsing the class files
+ * directly
+ * <p>
+ * Unlike {@link AnnotatedBeanClassScanner}, the candidate classes are not loaded while scanning, only the classes that
+ * are annotated with {@link MBean} (either directly or through a composed annotation) are loaded, and they are not
+ * initialized until the beans are created. It doesn't depend on the Reflections library.
+ * </p>
+ * <p>
+ * The scanning is delegated to a {@link ClassPathIndex}, which can be shared with {@link
+ * com.curtisnewbie.module.ioc.context.ClassPathRefreshablePropertyRegistry}, such that the classpath is walked only
+ * once for both of them, i.e., the walks of the index are combined (see {@link ClassPathIndex#setCombinedWalk(boolean)}).
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ClassPathWalker
+ * @see ClassFileParser
+ */
+public class BytecodeBeanClassScanner extends AbstractBeanClassScanner implements BeanClassScanner {
+
+    private static final Logger logger = LogUtil.getLogger(BytecodeBeanClassScanner.class);
+
+    private final ClassPathIndex classPathIndex;
+
+    public BytecodeBeanClassScanner() {
+        this(new ClassPathIndex());
+    }
+
+    /**
+     * @param classPathIndex index of the classpath, it may be shared with other components, the classes are always
+     *                       walked together with the properties files
+     */
+    public BytecodeBeanClassScanner(ClassPathIndex classPathIndex) {
+        Objects.requireNonNull(classPathIndex);
+        this.classPathIndex = classPathIndex;
+        this.classPathIndex.setCombinedWalk(true);
+    }
+
+    @Override
+    public Set<Class<?>> scanBeanClasses() {
+        long start = System.nanoTime();
+        ClassLoader cl = getIfNotNullElseDefaultClassLoader();
+        ClassPathScanResult result = classPathIndex.scan(basePackages, cl);
+        Set<Class<?>> beanClasses = new HashSet<>();
+        for (String name : result.getBeanClassNames()) {
+            Class<?> c = loadClass(name, cl);
+            if (c != null)
+                beanClasses.add(c);
+        }
+
+        // the walk may be shared with others, e.g., the property registry, it's always included in the report
+        ScanRecorder recorder = new ScanRecorder();
+        recorder.merge(result.getScanReport());
+        recorder.recordClassesLoaded(beanClasses.size());
+        recorder.recordElapsedNanos(System.nanoTime() - start);
+        this.scanReport = recorder.toReport();
+        return beanClasses;
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        super.setParallelism(parallelism);
+        classPathIndex.setParallelism(parallelism);
+    }
+
+    @Override
+    protected void setClassNameFilter(ClassNameFilter classNameFilter) {
+        super.setClassNameFilter(classNameFilter);
+        classPathIndex.setClassNameFilter(classNameFilter);
+    }
+
+    /**
+     * Set the cache of the scanning result, by default the result is not cached
+     *
+     * @param scanCache cache (nullable, to disable the cache)
+     * @see ClassPathIndex#setScanCache(ScanCache)
+     */
+    public void setScanCache(ScanCache scanCache) {
+        classPathIndex.setScanCache(scanCache);
+    }
+
+    /**
+     * Get the index of the classpath used by this scanner
+     */
+    public ClassPathIndex getClassPathIndex() {
+        return classPathIndex;
+    }
+
+    /**
+     * Load the class found by scanning, without initializing it
+     *
+     * @return class, or null if it can't be loaded, e.g., it's in a classpath entry that is not visible to the
+     * classloader, or its dependencies are missing
+     */
+    protected static Class<?> loadClass(String name, ClassLoader cl) {
+        try {
+            return Class.forName(name, false, cl);
+        } catch (ClassNotFoundException | LinkageError e) {
+            LogUtil.info(logger, "Skipped class %s that can't be loaded, %s", name, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.curtisnewbie.module.ioc.processing;
+
+import java.util.Objects;
+
+/**
+ * Decorator of {@link BeanNameGenerator} that caches the names generated
+ * <p>
+ * The names are cached in a {@link ClassValue}, so they are generated only once for each class, and the lookups of
+ * beans by class don't create new strings, e.g., {@link Class#getCanonicalName()} is not cached in JDK 8. The
+ * delegate must always generate the same name for the same class.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public class CachingBeanNameGenerator implements BeanNameGenerator {
+
+    private final BeanNameGenerator delegate;
+
+    private final ClassValue<String> beanNames = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return delegate.generateBeanName(type);
+        }
+    };
+
+    /**
+     * @param delegate the generator that actually generates the names
+     */
+    public CachingBeanNameGenerator(BeanNameGenerator delegate) {
+        Objects.requireNonNull(delegate);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String generateBeanName(Class<?> beanClazz) {
+        Objects.requireNonNull(beanClazz);
+        return beanNames.get(beanClazz);
+    }
+}
@@ -1,17 +1,23 @@
 package com.curtisnewbie.module.ioc.processing;
 
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
 import com.curtisnewbie.module.ioc.beans.BeanPropertyInfo;
 import com.curtisnewbie.module.ioc.beans.DependentBeanInfo;
+import com.curtisnewbie.module.ioc.context.BeanDefinition;
 import com.curtisnewbie.module.ioc.context.InjectCapableBeanRegistry;
 import com.curtisnewbie.module.ioc.context.SingletonBeanRegistry;
 import com.curtisnewbie.module.ioc.exceptions.BeanNotFoundException;
 import com.curtisnewbie.module.ioc.exceptions.CircularDependencyException;
 import com.curtisnewbie.module.ioc.exceptions.UnsatisfiedDependencyException;
 
-import java.util.HashSet;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.String.format;
 
@@ -24,7 +30,8 @@ public class DependencyInjectionBeanPostProcessor implements InstantiationAwareB
 
     private InjectCapableBeanRegistry beanRegistry;
     private BeanDependencyParser beanDependencyParser;
-    private Set<String> beanResolved = new HashSet<>();
+    /** the beans may be resolved concurrently, see {@link com.curtisnewbie.module.ioc.context.AbstractBeanRegistry#setParallelism(int)} */
+    private Set<String> beanResolved = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
     public DependencyInjectionBeanPostProcessor(InjectCapableBeanRegistry beanRegistry,
                                                 BeanDependencyParser beanDependencyParser) {
@@ -53,8 +60,9 @@ public class DependencyInjectionBeanPostProcessor implements InstantiationAwareB
     private void resolveDependenciesRecursively(Object bean, String beanName) {
         Objects.requireNonNull(beanName);
 
-        // bean has been resolved
-        if (beanResolved.contains(beanRegistry.getBeanName(beanName)))
+        // bean has been resolved, a new instance is created for each lookup of the non-singleton beans
+        final boolean singleton = isSingleton(beanName);
+        if (singleton && beanResolved.contains(beanRegistry.getBeanName(beanName)))
             return;
 
         Class<?> beanClz = bean.getClass();
@@ -65,47 +73,86 @@ public class DependencyInjectionBeanPostProcessor implements InstantiationAwareB
          Then the Bean B and field fieldOne together will become a single DependentBeanInfo
          */
         List<DependentBeanInfo> dependentBeans = beanDependencyParser.parseDependencies(beanClz);
+        List<String> dependentNames = new ArrayList<>(dependentBeans.size());
+        List<Object> dependentInstances = new ArrayList<>(dependentBeans.size());
         for (DependentBeanInfo dependent : dependentBeans) {
-            String dependentAlias = dependent.getDependentBeanName();
+            String dependentAlias = resolveDependentBeanName(dependent);
+            dependentNames.add(dependentAlias);
+            dependentInstances.add(null);
+
+            // the lazy dependent is only looked up on the first method call, it only needs to be registered
+            if (dependent.isLazy()) {
+                String dependentName = beanRegistry.getBeanName(dependentAlias);
+                if (dependentName == null || !(beanRegistry.containsBeanDefinition(dependentName)
+                        || beanRegistry.containsBean(dependentName)))
+                    throw BeanNotFoundException.forBeanName(dependentAlias);
+                continue;
+            }
 
-            if (beanRegistry.isDependent(beanName, dependentAlias)) {
+            /*
+            update dependency cache first, then check whether the dependent bean already depends on this bean, directly
+            or indirectly. The edges are registered by bean names, not the aliases, so the beans depending on each
+            other through interfaces are still connected. When the beans are created concurrently, at least one of the
+            beans in a circle sees the whole circle, the registry also detects the threads waiting for each other.
+             */
+            final String resolvedName = beanRegistry.getBeanName(beanName);
+            final String dependentName = beanRegistry.getBeanName(dependentAlias);
+            beanRegistry.registerDependency(resolvedName, dependentName);
+            if (resolvedName.equals(dependentName) || beanRegistry.isDependent(dependentName, resolvedName)) {
                 throw new CircularDependencyException("Detected circular dependency between " + beanName + " and " + dependentAlias);
             }
 
-            // update dependency cache
-            beanRegistry.registerDependency(beanName, dependentAlias);
-
             // try to get the instantiated dependent bean, see if it's actually populated
             Object dependentBean = beanRegistry.getBeanByName(dependentAlias);
             Objects.requireNonNull(dependentBean, "Detected unresolvable dependency: " + dependentAlias);
+            // the same instance is injected, a non-singleton bean is created again if it's looked up again
+            dependentInstances.set(dependentInstances.size() - 1, dependentBean);
 
-            // continue to resolve the dependent bean
-            resolveDependenciesRecursively(dependentBean, dependentAlias);
+            // continue to resolve the dependent bean, the non-singleton beans are fully initialised when returned
+            if (isSingleton(dependentAlias))
+                resolveDependenciesRecursively(dependentBean, dependentAlias);
         }
 
         // inject dependencies
-        for (DependentBeanInfo dependent : dependentBeans) {
-            injectDependentBean(bean, dependent);
+        for (int i = 0; i < dependentBeans.size(); i++) {
+            injectDependentBean(bean, dependentNames.get(i), dependentInstances.get(i), dependentBeans.get(i));
         }
 
         // mark the bean as resolved
-        beanResolved.add(beanRegistry.getBeanName(beanName));
+        if (singleton)
+            beanResolved.add(beanRegistry.getBeanName(beanName));
+    }
+
+    /** Check whether the bean is a singleton, the beans registered without definitions are always singletons */
+    private boolean isSingleton(String aliasOrName) {
+        BeanDefinition beanDefinition = beanRegistry.getBeanDefinition(beanRegistry.getBeanName(aliasOrName));
+        return beanDefinition == null || beanDefinition.getScope() == BeanScope.SINGLETON;
     }
 
 
+    /**
+     * Resolve name of the dependent bean, if the type required is parameterized, the bean is resolved by the type
+     * arguments as well, e.g., {@code Repository<User>}, otherwise it's just the name in the {@code DependentBeanInfo}
+     */
+    private String resolveDependentBeanName(DependentBeanInfo dependentBeanInfo) {
+        if (dependentBeanInfo.getDependentBeanType() instanceof ParameterizedType)
+            return beanRegistry.getBeanNameByType(dependentBeanInfo.getDependentBeanType());
+        return dependentBeanInfo.getDependentBeanName();
+    }
+
     /**
      * Inject a dependent bean into the target bean
      *
      * @param bean              bean
+     * @param dependentBeanName dependent bean's name (which might be an alias)
+     * @param dependentBean     instance of the dependent bean, it's null if the dependent bean is lazy
      * @param dependentBeanInfo info of a dependent bean
      */
-    private void injectDependentBean(Object bean, DependentBeanInfo dependentBeanInfo) {
+    private void injectDependentBean(Object bean, String dependentBeanName, Object dependentBean,
+                                     DependentBeanInfo dependentBeanInfo) {
         Objects.requireNonNull(bean, "Unable to inject dependencies, bean is null");
         Objects.requireNonNull(dependentBeanInfo, "Unable to inject dependencies, dependent bean info is null");
 
-        // dependent bean's name (which might be an alias)
-        String dependentBeanName = dependentBeanInfo.getDependentBeanName();
-
         // the properties info of this bean that require dependency injection
         List<BeanPropertyInfo> toBeInjectedProperties = dependentBeanInfo.getBeanPropertiesToInject();
 
@@ -115,8 +162,19 @@ public class DependencyInjectionBeanPostProcessor implements InstantiationAwareB
         if (toBeInjectedProperties == null || toBeInjectedProperties.isEmpty())
             return;
 
+        // a proxy is injected for the lazy dependent, the actual bean is looked up on the first method call
+        if (dependentBeanInfo.isLazy()) {
+            Type type = dependentBeanInfo.getDependentBeanType();
+            Class<?> rawType = type instanceof ParameterizedType
+                    ? (Class<?>) ((ParameterizedType) type).getRawType() : (Class<?>) type;
+            Object proxy = LazyDependencyProxy.create(beanRegistry, dependentBeanName, rawType);
+            for (BeanPropertyInfo prop : toBeInjectedProperties)
+                prop.setValueToPropertyOfBean(bean, proxy);
+            return;
+        }
+
         // the actual implementation bean, the required type might be an interface, so we need to handle the casting
-        Object dependentImplBeanInstance = beanRegistry.getBeanByName(dependentBeanName);
+        Object dependentImplBeanInstance = dependentBean;
         Objects.requireNonNull(dependentImplBeanInstance, "Unable to find instance of bean: " + dependentBeanName);
 
         for (BeanPropertyInfo prop : toBeInjectedProperties) {
@@ -0,0 +1,83 @@
+package com.curtisnewbie.module.ioc.processing;
+
+
+import com.curtisnewbie.module.ioc.index.MBeanIndex;
+import com.curtisnewbie.module.ioc.index.MBeanIndexProcessor;
+import com.curtisnewbie.module.ioc.scan.ClassPathIndex;
+import com.curtisnewbie.module.ioc.scan.ClassPathScanResult;
+import com.curtisnewbie.module.ioc.scan.ScanRecorder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Implementation of {@link BeanClassScanner} that reads the {@link MBeanIndex} generated at compile time, instead of
+ * scanning the classpath
+ * <p>
+ * When no index is found, it falls back to scanning the classpath like {@link BytecodeBeanClassScanner} does. Otherwise,
+ * only the class files in the classpath entries (directories or jars) that don't have an index (e.g., compiled without
+ * the {@link MBeanIndexProcessor}) are read, the indexed ones are only walked for the properties files when the {@link
+ * ClassPathIndex} is shared with the property registry.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see MBeanIndex
+ * @see MBeanIndexProcessor
+ */
+public class IndexedBeanClassScanner extends BytecodeBeanClassScanner implements BeanClassScanner {
+
+    public IndexedBeanClassScanner() {
+        super();
+        getClassPathIndex().setIndexedRootMarker(MBeanIndex.INDEX_LOCATION);
+    }
+
+    /**
+     * @param classPathIndex index of the classpath used for the classpath entries without {@link MBeanIndex}, it may
+     *                       be shared with other components
+     */
+    public IndexedBeanClassScanner(ClassPathIndex classPathIndex) {
+        super(classPathIndex);
+        classPathIndex.setIndexedRootMarker(MBeanIndex.INDEX_LOCATION);
+    }
+
+    @Override
+    public Set<Class<?>> scanBeanClasses() {
+        long start = System.nanoTime();
+        ClassLoader cl = getIfNotNullElseDefaultClassLoader();
+        MBeanIndex index = MBeanIndex.load(cl);
+        // no index at all, scan the classpath instead, no classpath entry is skipped in this case
+        if (index == null)
+            return super.scanBeanClasses();
+
+        Set<Class<?>> beanClasses = new HashSet<>();
+        for (String name : index.getBeanClassNames()) {
+            if (!isInScope(name))
+                continue;
+            beanClasses.add(loadIndexedClass(name, cl));
+        }
+        ScanRecorder recorder = new ScanRecorder();
+        recorder.recordAnnotationHits(beanClasses.size());
+
+        // the classpath entries that are not indexed are still scanned, the walk may be shared with others
+        ClassPathScanResult result = getClassPathIndex().scan(basePackages, cl);
+        for (String name : result.getBeanClassNames()) {
+            Class<?> c = loadClass(name, cl);
+            if (c != null)
+                beanClasses.add(c);
+        }
+        recorder.merge(result.getScanReport());
+        recorder.recordClassesLoaded(beanClasses.size());
+        recorder.recordElapsedNanos(System.nanoTime() - start);
+        this.scanReport = recorder.toReport();
+        return beanClasses;
+    }
+
+    private static Class<?> loadIndexedClass(String name, ClassLoader cl) {
+        try {
+            return Class.forName(name, false, cl);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    String.format("Unable to load %s found in %s, the index might be stale", name, MBeanIndex.INDEX_LOCATION), e);
+        }
+    }
+}
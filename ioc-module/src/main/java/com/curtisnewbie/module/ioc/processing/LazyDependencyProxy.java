@@ -0,0 +1,99 @@
+package com.curtisnewbie.module.ioc.processing;
+
+import com.curtisnewbie.module.ioc.context.BeanRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+
+/**
+ * Handler of the proxy injected for a lazy dependency, the bean is only looked up (and created if it's a lazy bean) on
+ * the first method call, then it's cached, and the calls are delegated to it
+ * <p>
+ * {@code equals} and {@code hashCode} are based on the identity of the proxy, they never resolve the bean. The bean is
+ * resolved only once even if the first calls are made concurrently, which matters for the prototype and pooled beans,
+ * since each lookup of them creates or borrows an instance.
+ * </p>
+ * <p>
+ * The exceptions thrown by the bean are rethrown as they are, and the interface doesn't have to be public.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see com.curtisnewbie.module.ioc.annotations.Dependency#lazy()
+ */
+final class LazyDependencyProxy implements InvocationHandler {
+
+    private final BeanRegistry beanRegistry;
+    private final String beanName;
+
+    /** whether the interface is not public, its methods must be made accessible before they are invoked */
+    private final boolean isNonPublicType;
+
+    /** the bean resolved, it's null until the first method call */
+    private volatile Object target;
+
+    private LazyDependencyProxy(BeanRegistry beanRegistry, String beanName, boolean isNonPublicType) {
+        this.beanRegistry = beanRegistry;
+        this.beanName = beanName;
+        this.isNonPublicType = isNonPublicType;
+    }
+
+    /**
+     * Create the proxy
+     *
+     * @param beanRegistry registry that the bean is looked up from
+     * @param beanName     name (or alias) of the bean
+     * @param type         the interface that the proxy implements
+     */
+    static Object create(BeanRegistry beanRegistry, String beanName, Class<?> type) {
+        Objects.requireNonNull(beanRegistry);
+        Objects.requireNonNull(beanName);
+        Objects.requireNonNull(type, "Type of the lazy dependency is required, bean: " + beanName);
+        if (!type.isInterface())
+            throw new IllegalArgumentException("Only interfaces can be proxied, type: " + type.getName());
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new LazyDependencyProxy(beanRegistry, beanName, !Modifier.isPublic(type.getModifiers())));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            if (method.getName().equals("equals"))
+                return proxy == args[0];
+            if (method.getName().equals("hashCode"))
+                return System.identityHashCode(proxy);
+        }
+        Object t = resolveTarget();
+        if (isNonPublicType && !method.isAccessible())
+            method.setAccessible(true);
+        try {
+            return method.invoke(t, args);
+        } catch (InvocationTargetException e) {
+            // the exception thrown by the bean itself
+            throw e.getCause();
+        }
+    }
+
+    private Object resolveTarget() {
+        Object t = target;
+        if (t == null) {
+            // a lookup of prototype or pooled bean creates or borrows an instance, it must only be looked up once
+            synchronized (this) {
+                t = target;
+                if (t == null) {
+                    t = beanRegistry.getBeanByName(beanName);
+                    target = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyDependencyProxy{beanName=" + beanName + "}";
+    }
+}
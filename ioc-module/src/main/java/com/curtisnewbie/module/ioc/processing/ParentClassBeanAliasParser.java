@@ -1,17 +1,18 @@
 package com.curtisnewbie.module.ioc.processing;
 
-import com.curtisnewbie.module.ioc.annotations.MBean;
-import com.curtisnewbie.module.ioc.exceptions.TypeNotSupportedForInjectionException;
+import com.curtisnewbie.module.ioc.util.ClassHierarchyUtil;
 
 import java.util.*;
 
-import static java.lang.String.format;
-
 /**
  * Implementation of {@link BeanAliasParser}
  * <p>
  * The parent classes (including interfaces) are treated 'aliases'
  * </p>
+ * <p>
+ * The aliases of each class are memoized, they are built from the supertypes memoized by {@link ClassHierarchyUtil},
+ * and the names of the supertypes are only generated once for each parser.
+ * </p>
  *
  * @author yongjie.zhuang
  */
@@ -19,46 +20,32 @@ public class ParentClassBeanAliasParser implements BeanAliasParser {
 
     private final BeanNameGenerator beanNameGenerator;
 
+    /** the names of the class itself, the generator may not be cheap for the classes shared by many beans */
+    private final ClassValue<String> beanNames = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return beanNameGenerator.generateBeanName(type);
+        }
+    };
+
+    /** the aliases of the class */
+    private final ClassValue<Set<String>> beanAliases = new ClassValue<Set<String>>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            Set<String> aliases = new HashSet<>();
+            for (Class<?> c : ClassHierarchyUtil.getSupertypes(type))
+                aliases.add(beanNames.get(c));
+            return Collections.unmodifiableSet(aliases);
+        }
+    };
+
     public ParentClassBeanAliasParser(BeanNameGenerator beanNameGenerator) {
         this.beanNameGenerator = beanNameGenerator;
     }
 
     @Override
     public Set<String> parseBeanAliases(Class<?> clazz) {
-        Set<String> beanAlias = new HashSet<>();
-
-        Set<Class<?>> clzSeen = new HashSet<>();
-        Queue<Class<?>> clzToBeAdded = new LinkedList<>();
-
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            clzToBeAdded.add(superClass);
-        }
-        clzToBeAdded.addAll(Arrays.asList(clazz.getInterfaces()));
-
-        while (!clzToBeAdded.isEmpty()) {
-            Class<?> c = clzToBeAdded.poll();
-
-            // have seen this class already
-            if (clzSeen.contains(c))
-                continue;
-            clzSeen.add(c);
-
-            // actual class instead of interface
-            if (!c.isInterface() && (superClass = c.getSuperclass()) != null) {
-                clzToBeAdded.add(superClass);
-            }
-
-            Class<?>[] interfaces = c.getInterfaces();
-            if (interfaces != null && interfaces.length > 0) {
-                clzToBeAdded.addAll(Arrays.asList(interfaces));
-            }
-        }
-
-        for (Class<?> ic : clzSeen) {
-            String interfaceName = beanNameGenerator.generateBeanName(ic);
-            beanAlias.add(interfaceName);
-        }
-        return beanAlias;
+        Objects.requireNonNull(clazz);
+        return beanAliases.get(clazz);
     }
 }
@@ -0,0 +1,19 @@
+package com.curtisnewbie.module.ioc.processing;
+
+import com.curtisnewbie.module.ioc.scan.ScanReport;
+
+/**
+ * Scanner that reports the statistics of its last scan
+ *
+ * @author yongjie.zhuang
+ * @see ScanReport
+ */
+public interface ScanReportProvider {
+
+    /**
+     * Get report of the last scan
+     *
+     * @return report (nullable, if it hasn't scanned yet)
+     */
+    ScanReport getScanReport();
+}
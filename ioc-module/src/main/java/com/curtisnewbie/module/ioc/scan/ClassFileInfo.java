@@ -0,0 +1,80 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Information of a class parsed from the class file, without loading the class
+ *
+ * @author yongjie.zhuang
+ * @see ClassFileParser
+ */
+public final class ClassFileInfo {
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+    private final int accessFlags;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final List<String> annotationNames;
+
+    ClassFileInfo(String className, int accessFlags, String superClassName, List<String> interfaceNames,
+                  List<String> annotationNames) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.superClassName = superClassName;
+        this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+        this.annotationNames = Collections.unmodifiableList(annotationNames);
+    }
+
+    /**
+     * Get binary name of the class, e.g., {@code com.curtisnewbie.Outer$Inner}
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Get binary name of the super class (nullable for {@code java.lang.Object})
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * Get binary names of the interfaces directly implemented
+     */
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * Get binary names of the runtime visible annotations declared on the class
+     */
+    public List<String> getAnnotationNames() {
+        return annotationNames;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassFileInfo{" +
+                "className='" + className + '\'' +
+                ", annotationNames=" + annotationNames +
+                '}';
+    }
+}
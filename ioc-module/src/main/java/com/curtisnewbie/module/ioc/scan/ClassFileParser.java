@@ -0,0 +1,266 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parser of class files
+ * <p>
+ * It only parses the class file header (constant pool, access flags, this class, super class and interfaces) and the
+ * {@code RuntimeVisibleAnnotations} attribute of the class, fields and methods are skipped. The class is never loaded.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html">JVM Spec, The class File Format</a>
+ */
+public final class ClassFileParser {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    // constant pool tags
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ClassFileParser() {
+    }
+
+    /**
+     * Parse the class file
+     *
+     * @param buf content of the class file, the position of the buffer is changed
+     * @return info of the class
+     * @throws IllegalArgumentException if the content is not a valid class file
+     */
+    public static ClassFileInfo parse(ByteBuffer buf) {
+        try {
+            return doParse(buf);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed class file", e);
+        }
+    }
+
+    private static ClassFileInfo doParse(ByteBuffer buf) {
+        if (buf.getInt() != MAGIC)
+            throw new IllegalArgumentException("Not a class file, magic number mismatch");
+        // minor_version, major_version
+        buf.position(buf.position() + 4);
+
+        // offsets of each constant pool entry, the entries are only decoded when needed
+        int cpCount = u2(buf);
+        int[] cpOffsets = new int[cpCount];
+        int annotationsAttrIndex = -1;
+        for (int i = 1; i < cpCount; i++) {
+            cpOffsets[i] = buf.position();
+            int tag = u1(buf);
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    int len = u2(buf);
+                    if (annotationsAttrIndex < 0 && utf8Equals(buf, buf.position(), len, RUNTIME_VISIBLE_ANNOTATIONS))
+                        annotationsAttrIndex = i;
+                    buf.position(buf.position() + len);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    buf.position(buf.position() + 4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    buf.position(buf.position() + 8);
+                    // takes two slots
+                    i++;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    buf.position(buf.position() + 2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    buf.position(buf.position() + 3);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag: " + tag);
+            }
+        }
+
+        int accessFlags = u2(buf);
+        String className = className(buf, cpOffsets, u2(buf));
+        int superIndex = u2(buf);
+        String superClassName = superIndex == 0 ? null : className(buf, cpOffsets, superIndex);
+        int interfacesCount = u2(buf);
+        List<String> interfaceNames = new ArrayList<>(interfacesCount);
+        for (int i = 0; i < interfacesCount; i++)
+            interfaceNames.add(className(buf, cpOffsets, u2(buf)));
+
+        // no annotation at all, no need to go through the rest of the class file
+        if (annotationsAttrIndex < 0)
+            return new ClassFileInfo(className, accessFlags, superClassName, interfaceNames, Collections.emptyList());
+
+        skipMembers(buf); // fields
+        skipMembers(buf); // methods
+
+        List<String> annotationNames = Collections.emptyList();
+        int attrCount = u2(buf);
+        for (int i = 0; i < attrCount; i++) {
+            int nameIndex = u2(buf);
+            int len = buf.getInt();
+            int end = buf.position() + len;
+            if (nameIndex == annotationsAttrIndex) {
+                int numAnnotations = u2(buf);
+                annotationNames = new ArrayList<>(numAnnotations);
+                for (int j = 0; j < numAnnotations; j++) {
+                    // type_index points to a field descriptor, e.g., Lcom/curtisnewbie/MBean;
+                    String desc = utf8(buf, cpOffsets, u2(buf));
+                    annotationNames.add(descriptorToClassName(desc));
+                    skipElementValuePairs(buf);
+                }
+            }
+            buf.position(end);
+        }
+        return new ClassFileInfo(className, accessFlags, superClassName, interfaceNames, annotationNames);
+    }
+
+    private static void skipMembers(ByteBuffer buf) {
+        int count = u2(buf);
+        for (int i = 0; i < count; i++) {
+            // access_flags, name_index, descriptor_index
+            buf.position(buf.position() + 6);
+            skipAttributes(buf);
+        }
+    }
+
+    private static void skipAttributes(ByteBuffer buf) {
+        int count = u2(buf);
+        for (int i = 0; i < count; i++) {
+            // attribute_name_index
+            buf.position(buf.position() + 2);
+            int len = buf.getInt();
+            buf.position(buf.position() + len);
+        }
+    }
+
+    private static void skipElementValuePairs(ByteBuffer buf) {
+        int pairs = u2(buf);
+        for (int i = 0; i < pairs; i++) {
+            // element_name_index
+            buf.position(buf.position() + 2);
+            skipElementValue(buf);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer buf) {
+        int tag = u1(buf);
+        switch (tag) {
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 's':
+            case 'c':
+                buf.position(buf.position() + 2);
+                break;
+            case 'e':
+                buf.position(buf.position() + 4);
+                break;
+            case '@':
+                // type_index
+                buf.position(buf.position() + 2);
+                skipElementValuePairs(buf);
+                break;
+            case '[':
+                int n = u2(buf);
+                for (int i = 0; i < n; i++)
+                    skipElementValue(buf);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown element value tag: " + (char) tag);
+        }
+    }
+
+    private static String className(ByteBuffer buf, int[] cpOffsets, int classIndex) {
+        // CONSTANT_Class_info: tag, name_index
+        int nameIndex = buf.getShort(cpOffsets[classIndex] + 1) & 0xFFFF;
+        return utf8(buf, cpOffsets, nameIndex).replace('/', '.');
+    }
+
+    /** Convert field descriptor to binary name of the class, e.g., Lcom/curtisnewbie/MBean; -> com.curtisnewbie.MBean */
+    private static String descriptorToClassName(String desc) {
+        if (desc.length() > 2 && desc.charAt(0) == 'L' && desc.charAt(desc.length() - 1) == ';')
+            return desc.substring(1, desc.length() - 1).replace('/', '.');
+        return desc;
+    }
+
+    /** Decode CONSTANT_Utf8_info (in modified UTF-8) */
+    private static String utf8(ByteBuffer buf, int[] cpOffsets, int index) {
+        int offset = cpOffsets[index];
+        if ((buf.get(offset) & 0xFF) != CONSTANT_UTF8)
+            throw new IllegalArgumentException("Constant pool entry " + index + " is not CONSTANT_Utf8");
+        int len = buf.getShort(offset + 1) & 0xFFFF;
+        int start = offset + 3;
+        int end = start + len;
+        char[] chars = new char[len];
+        int n = 0;
+        for (int i = start; i < end; ) {
+            int c = buf.get(i++) & 0xFF;
+            if (c < 0x80) {
+                chars[n++] = (char) c;
+            } else if ((c & 0xE0) == 0xC0) {
+                chars[n++] = (char) (((c & 0x1F) << 6) | (buf.get(i++) & 0x3F));
+            } else {
+                int c2 = buf.get(i++) & 0x3F;
+                int c3 = buf.get(i++) & 0x3F;
+                chars[n++] = (char) (((c & 0x0F) << 12) | (c2 << 6) | c3);
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    /** Compare CONSTANT_Utf8_info with an ASCII string without decoding it */
+    private static boolean utf8Equals(ByteBuffer buf, int start, int len, String ascii) {
+        if (len != ascii.length())
+            return false;
+        for (int i = 0; i < len; i++) {
+            if (buf.get(start + i) != ascii.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static int u1(ByteBuffer buf) {
+        return buf.get() & 0xFF;
+    }
+
+    private static int u2(ByteBuffer buf) {
+        return buf.getShort() & 0xFFFF;
+    }
+}
@@ -0,0 +1,202 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.util.*;
+
+/**
+ * Filter of classes by include and exclude patterns, the patterns are compiled into a prefix trie
+ * <p>
+ * A pattern is either a package or a class name, e.g., {@code com.curtisnewbie.generated} matches the classes in the
+ * package and its sub-packages, {@code com.curtisnewbie.App} matches the class and its nested classes. A pattern that
+ * ends with {@code '*'} matches any name that starts with the part before {@code '*'}, e.g., {@code
+ * com.curtisnewbie.Gen*}. Other wildcards are not supported.
+ * </p>
+ * <p>
+ * The most specific (longest) pattern that matches a class decides whether it's accepted, an exclude pattern wins if
+ * an include pattern is the same. A class that matches no pattern is accepted only when there is no include pattern.
+ * </p>
+ * <p>
+ * The filter can be applied to both the class names (e.g., {@code com.curtisnewbie.App$Inner}) and the entries'
+ * names (e.g., {@code com/curtisnewbie/App$Inner.class}), such that the entries are rejected before they are read.
+ * The matching doesn't allocate, and it's thread-safe.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public final class ClassNameFilter {
+
+    /** Filter that accepts all classes */
+    public static final ClassNameFilter ACCEPT_ALL = new ClassNameFilter(Collections.emptySet(), Collections.emptySet());
+
+    private static final char WILDCARD = '*';
+    private static final byte NONE = 0;
+    private static final byte INCLUDE = 1;
+    private static final byte EXCLUDE = 2;
+
+    private final Set<String> includes;
+    private final Set<String> excludes;
+    private final Node root;
+
+    private ClassNameFilter(Set<String> includes, Set<String> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+        MutableNode mroot = new MutableNode();
+        for (String p : includes)
+            mroot.insert(p, INCLUDE);
+        for (String p : excludes)
+            mroot.insert(p, EXCLUDE);
+        this.root = mroot.freeze();
+    }
+
+    /**
+     * Create filter
+     *
+     * @param includes include patterns, if empty, all classes that are not excluded are accepted
+     * @param excludes exclude patterns
+     * @throws IllegalArgumentException if any pattern is invalid
+     */
+    public static ClassNameFilter of(Collection<String> includes, Collection<String> excludes) {
+        Objects.requireNonNull(includes);
+        Objects.requireNonNull(excludes);
+        if (includes.isEmpty() && excludes.isEmpty())
+            return ACCEPT_ALL;
+        return new ClassNameFilter(normalize(includes), normalize(excludes));
+    }
+
+    private static Set<String> normalize(Collection<String> patterns) {
+        Set<String> normalized = new TreeSet<>();
+        for (String p : patterns) {
+            Objects.requireNonNull(p);
+            String t = p.trim();
+            int wildcard = t.indexOf(WILDCARD);
+            if (wildcard >= 0 && wildcard != t.length() - 1)
+                throw new IllegalArgumentException("Only trailing '*' is supported in pattern: " + p);
+            if (t.isEmpty() || t.equals(".") || t.startsWith(".") || (t.endsWith(".") && wildcard < 0))
+                throw new IllegalArgumentException("Invalid pattern: '" + p + "'");
+            normalized.add(t);
+        }
+        return Collections.unmodifiableSet(normalized);
+    }
+
+    /**
+     * Check if the class is accepted
+     *
+     * @param name class name (e.g., {@code com.curtisnewbie.App}) or entry's name (e.g., {@code
+     *             com/curtisnewbie/App.class})
+     */
+    public boolean accepts(CharSequence name) {
+        if (this == ACCEPT_ALL)
+            return true;
+        byte decision = root.prefixMatch;
+        Node n = root;
+        int len = name.length();
+        for (int i = 0; i < len; i++) {
+            n = n.child(normalize(name.charAt(i)));
+            if (n == null)
+                break;
+            if (n.prefixMatch != NONE)
+                decision = n.prefixMatch;
+            if (n.nameMatch != NONE && (i + 1 == len || isBoundary(name.charAt(i + 1))))
+                decision = n.nameMatch;
+        }
+        if (decision == NONE)
+            return includes.isEmpty();
+        return decision == INCLUDE;
+    }
+
+    /**
+     * Check if the filter accepts all classes
+     */
+    public boolean isAcceptAll() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    public Set<String> getIncludes() {
+        return includes;
+    }
+
+    public Set<String> getExcludes() {
+        return excludes;
+    }
+
+    private static char normalize(char c) {
+        return c == '/' ? '.' : c;
+    }
+
+    /** end of a package or a simple class name, the '.' also covers the '.class' suffix of the entries */
+    private static boolean isBoundary(char c) {
+        return c == '.' || c == '/' || c == '$';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ClassNameFilter that = (ClassNameFilter) o;
+        return includes.equals(that.includes) && excludes.equals(that.excludes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(includes, excludes);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassNameFilter{includes=" + includes + ", excludes=" + excludes + "}";
+    }
+
+    /** Immutable node of the trie, children are sorted by key */
+    private static final class Node {
+
+        private final char[] keys;
+        private final Node[] children;
+        /** decision of the pattern that ends here and matches on a boundary */
+        private final byte nameMatch;
+        /** decision of the pattern that ends here with a wildcard */
+        private final byte prefixMatch;
+
+        Node(char[] keys, Node[] children, byte nameMatch, byte prefixMatch) {
+            this.keys = keys;
+            this.children = children;
+            this.nameMatch = nameMatch;
+            this.prefixMatch = prefixMatch;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+    }
+
+    private static final class MutableNode {
+
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private byte nameMatch = NONE;
+        private byte prefixMatch = NONE;
+
+        void insert(String pattern, byte decision) {
+            boolean isPrefix = pattern.charAt(pattern.length() - 1) == WILDCARD;
+            int len = isPrefix ? pattern.length() - 1 : pattern.length();
+            MutableNode n = this;
+            for (int i = 0; i < len; i++)
+                n = n.children.computeIfAbsent(normalize(pattern.charAt(i)), k -> new MutableNode());
+            // exclude patterns are inserted after include patterns, so they win
+            if (isPrefix)
+                n.prefixMatch = decision;
+            else
+                n.nameMatch = decision;
+        }
+
+        Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> e : children.entrySet()) {
+                keys[i] = e.getKey();
+                frozen[i] = e.getValue().freeze();
+                i++;
+            }
+            return new Node(keys, frozen, nameMatch, prefixMatch);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An entry (a file) found under a {@link ClassPathRoot}
+ *
+ * @author yongjie.zhuang
+ * @see ClassPathWalker
+ */
+public interface ClassPathEntry {
+
+    /**
+     * Get the name of the entry relative to the root, separated by {@code '/'}, e.g., {@code com/curtisnewbie/App.class}
+     */
+    String getName();
+
+    /**
+     * Read the content of the entry
+     */
+    ByteBuffer read() throws IOException;
+}
@@ -0,0 +1,23 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.io.IOException;
+
+/**
+ * Visitor of {@link ClassPathEntry}
+ * <p>
+ * The visitor is invoked concurrently by the {@link ClassPathWalker}, so it must be thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@FunctionalInterface
+public interface ClassPathEntryVisitor {
+
+    /**
+     * Visit an entry
+     *
+     * @param root  root of the entry
+     * @param entry entry
+     */
+    void visit(ClassPathRoot root, ClassPathEntry entry) throws IOException;
+}
@@ -0,0 +1,156 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Fingerprint of a number of {@link ClassPathRoot}, it changes whenever any file under these roots is added, removed
+ * or modified
+ * <p>
+ * The fingerprint is computed from the path, size and last modified time of each archive and each file in the
+ * directories, the files are not read. It consists of two parts, the scope (which roots and which packages) and the
+ * digest of the files in the scope.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ScanCache
+ */
+public final class ClassPathFingerprint {
+
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    private final String scopeId;
+    private final byte[] digest;
+
+    ClassPathFingerprint(String scopeId, byte[] digest) {
+        this.scopeId = scopeId;
+        this.digest = digest;
+    }
+
+    /**
+     * Compute fingerprint of the roots
+     *
+     * @param roots    roots
+     * @param packages base packages that are scanned in these roots
+     */
+    public static ClassPathFingerprint compute(Collection<ClassPathRoot> roots, Collection<String> packages) {
+        return compute(roots, packages, ClassNameFilter.ACCEPT_ALL);
+    }
+
+    /**
+     * Compute fingerprint of the roots
+     *
+     * @param roots           roots
+     * @param packages        base packages that are scanned in these roots
+     * @param classNameFilter filter of the classes that are scanned, it's part of the scope
+     */
+    public static ClassPathFingerprint compute(Collection<ClassPathRoot> roots, Collection<String> packages,
+                                               ClassNameFilter classNameFilter) {
+        Objects.requireNonNull(roots);
+        Objects.requireNonNull(packages);
+        Objects.requireNonNull(classNameFilter);
+
+        MessageDigest scope = newDigest();
+        for (String p : new TreeSet<>(packages))
+            update(scope, p);
+        for (String p : classNameFilter.getIncludes())
+            update(scope, "+" + p);
+        for (String p : classNameFilter.getExcludes())
+            update(scope, "-" + p);
+        for (ClassPathRoot r : roots)
+            update(scope, r.toString());
+
+        MessageDigest files = newDigest();
+        for (ClassPathRoot r : roots) {
+            try {
+                if (r.isDirectory())
+                    updateDirectory(files, r.getPath());
+                else
+                    updateFile(files, r.getPath().toString(), Files.readAttributes(r.getPath(), BasicFileAttributes.class));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to compute fingerprint of " + r, e);
+            }
+        }
+        return new ClassPathFingerprint(toHex(scope.digest()), files.digest());
+    }
+
+    /**
+     * Get id of the scope (the roots and packages), it doesn't change when the files in the scope change
+     */
+    public String getScopeId() {
+        return scopeId;
+    }
+
+    /**
+     * Get digest of the files in the scope
+     */
+    public byte[] getDigest() {
+        return digest.clone();
+    }
+
+    boolean matches(byte[] otherDigest) {
+        return MessageDigest.isEqual(digest, otherDigest);
+    }
+
+    int digestLength() {
+        return digest.length;
+    }
+
+    byte[] digest() {
+        return digest;
+    }
+
+    private static void updateDirectory(MessageDigest md, Path dir) throws IOException {
+        // the order of directory listing is not guaranteed, sort it first
+        SortedMap<String, BasicFileAttributes> files = new TreeMap<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.put(dir.relativize(file).toString(), attrs);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        update(md, dir.toString());
+        for (Map.Entry<String, BasicFileAttributes> e : files.entrySet())
+            updateFile(md, e.getKey(), e.getValue());
+    }
+
+    private static void updateFile(MessageDigest md, String name, BasicFileAttributes attrs) {
+        update(md, name);
+        updateLong(md, attrs.size());
+        updateLong(md, attrs.lastModifiedTime().toMillis());
+    }
+
+    private static void update(MessageDigest md, String s) {
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static void updateLong(MessageDigest md, long v) {
+        for (int i = 56; i >= 0; i -= 8)
+            md.update((byte) (v >>> i));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+}
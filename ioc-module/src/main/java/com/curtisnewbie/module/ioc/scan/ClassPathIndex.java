@@ -0,0 +1,437 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.util.LogUtil;
+import com.curtisnewbie.module.ioc.util.PackageScopeUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Index of the classpath, it walks each classpath entry only once, and produces both the classes annotated with {@link
+ * MBean} and the properties files
+ * <p>
+ * An instance can be shared by the components that need to scan the classpath (e.g., {@link
+ * com.curtisnewbie.module.ioc.processing.BytecodeBeanClassScanner} and {@link
+ * com.curtisnewbie.module.ioc.context.ClassPathRefreshablePropertyRegistry}), the result of the last scan is kept,
+ * and it's reused as long as the base packages and the classloader remain the same.
+ * </p>
+ * <p>
+ * The components that only need the properties files use {@link #scanPropertiesResources(Set, ClassLoader)}, which
+ * never reads the class files. The properties files found by either of the scans are shared, the properties files
+ * are not walked again by the other one. When the index is shared with a bean class scanner, the walks are combined
+ * (see {@link #setCombinedWalk(boolean)}), whichever scans first walks the classes and the properties files together,
+ * such that each classpath entry is walked only once.
+ * </p>
+ * <p>
+ * The classpath entries that contain the index of beans generated at compile time (see {@link
+ * #setIndexedRootMarker(String)}) are only walked for the properties files, their class files are never read.
+ * </p>
+ * <p>
+ * The result can be cached on disk with {@link #setScanCache(ScanCache)}, then the classpath is only scanned again
+ * when the fingerprint of the classpath changes.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ClassPathWalker
+ * @see ClassFileParser
+ */
+public class ClassPathIndex {
+
+    private static final Logger logger = LogUtil.getLogger(ClassPathIndex.class);
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final String PROPERTIES_FILE_SUFFIX = ".properties";
+    private static final String MBEAN_NAME = MBean.class.getName();
+
+    /** names of the results in {@link ScanCache} */
+    private static final String BEAN_CLASSES_CACHE_NAME = "mbean-classes";
+    private static final String UNINDEXED_BEAN_CLASSES_CACHE_NAME = "unindexed-mbean-classes";
+    private static final String PROPERTIES_CACHE_NAME = "properties-resources";
+
+    private final Object mutex = new Object();
+
+    /** number of threads used for walking the classpath */
+    private volatile int parallelism = ClassPathWalker.DEFAULT_PARALLELISM;
+
+    /** cache of the scanning result (nullable, if not cached at all) */
+    private volatile ScanCache scanCache;
+
+    /** filter of the classes, the rejected classes are never read */
+    private volatile ClassNameFilter classNameFilter = ClassNameFilter.ACCEPT_ALL;
+
+    /** whether the properties-only scans walk the classes as well, such that the result serves both scans */
+    private volatile boolean combinedWalk;
+
+    /** name of the resource that marks the classpath entries whose classes are indexed (nullable) */
+    private volatile String indexedRootMarker;
+
+    /** base packages, classloader, filter and the results of the last scans, guarded by mutex */
+    private Set<String> lastBasePackages;
+    private ClassLoader lastClassLoader;
+    private ClassNameFilter lastClassNameFilter;
+    private ClassPathScanResult lastResult;
+    /** result of the last scan that found the properties files, it's either lastResult or a properties-only scan */
+    private ClassPathScanResult lastPropertiesResult;
+
+    /**
+     * Set the number of threads used for scanning, the classpath entries are scanned concurrently when it's greater
+     * than 1, by default it's the number of available processors
+     *
+     * @param parallelism parallelism level
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be greater than 0, but was " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the cache of the scanning result, by default the result is not cached
+     *
+     * @param scanCache cache (nullable, to disable the cache)
+     */
+    public void setScanCache(ScanCache scanCache) {
+        this.scanCache = scanCache;
+    }
+
+    /**
+     * Set the filter of classes, the class files rejected by the filter are never read, by default all classes in the
+     * base packages are accepted
+     * <p>
+     * The properties files are not affected by the filter.
+     * </p>
+     *
+     * @param classNameFilter filter
+     */
+    public void setClassNameFilter(ClassNameFilter classNameFilter) {
+        Objects.requireNonNull(classNameFilter);
+        this.classNameFilter = classNameFilter;
+    }
+
+    /**
+     * Set whether the classes and the properties files are always walked together, by default it's false
+     * <p>
+     * When it's true, {@link #scanPropertiesResources(Set, ClassLoader)} does the same walk as {@link #scan(Set,
+     * ClassLoader)}, the result is kept for both of them, such that the bean class scanner sharing this index doesn't
+     * walk the classpath again. It's enabled by the {@link com.curtisnewbie.module.ioc.processing.BytecodeBeanClassScanner}
+     * that uses this index.
+     * </p>
+     *
+     * @param combinedWalk whether the walks are combined
+     */
+    public void setCombinedWalk(boolean combinedWalk) {
+        this.combinedWalk = combinedWalk;
+    }
+
+    /**
+     * Set name of the resource that marks the classpath entries whose classes are indexed, e.g., the {@link
+     * com.curtisnewbie.module.ioc.index.MBeanIndex}, the class files in these entries are not read, by default all
+     * classpath entries are scanned for the classes
+     * <p>
+     * The properties files in these entries are still scanned.
+     * </p>
+     *
+     * @param resourceName name of the resource (nullable, if no classpath entry is skipped)
+     */
+    public void setIndexedRootMarker(String resourceName) {
+        this.indexedRootMarker = resourceName;
+    }
+
+    /**
+     * Scan the classpath entries that contain the base packages, the result is reused if the base packages, the
+     * filter and the classloader are the same as the last scan
+     *
+     * @param basePackages base packages (normalized, see {@link PackageScopeUtil#normalize(Collection)})
+     * @param cl           classloader
+     * @return result of the scan
+     */
+    public ClassPathScanResult scan(Set<String> basePackages, ClassLoader cl) {
+        Objects.requireNonNull(basePackages);
+        Objects.requireNonNull(cl);
+        ClassNameFilter filter = this.classNameFilter;
+        synchronized (mutex) {
+            resetIfScopeChanged(basePackages, cl);
+            if (lastResult != null && lastClassNameFilter.equals(filter))
+                return lastResult;
+
+            // the properties files are not affected by the filter, they are only walked once
+            Set<String> knownPropertiesResources = lastPropertiesResult != null ?
+                    lastPropertiesResult.getPropertiesResources() : null;
+            ClassPathScanResult result = doScan(basePackages, filter, cl, knownPropertiesResources);
+            lastClassNameFilter = filter;
+            lastResult = result;
+            lastPropertiesResult = result;
+            return result;
+        }
+    }
+
+    /**
+     * Scan the properties files in the classpath entries that contain the base packages, the class files are never
+     * read, and the {@link ClassNameFilter} is not used
+     * <p>
+     * The result is reused if the base packages and the classloader are the same as the last scan (including the
+     * scans by {@link #scan(Set, ClassLoader)}), only the properties files of the result are meaningful. If the walks
+     * are combined (see {@link #setCombinedWalk(boolean)}), the classes are scanned as well, and the result is the same
+     * as {@link #scan(Set, ClassLoader)}.
+     * </p>
+     *
+     * @param basePackages base packages (normalized, see {@link PackageScopeUtil#normalize(Collection)})
+     * @param cl           classloader
+     * @return result of the scan
+     */
+    public ClassPathScanResult scanPropertiesResources(Set<String> basePackages, ClassLoader cl) {
+        Objects.requireNonNull(basePackages);
+        Objects.requireNonNull(cl);
+        if (combinedWalk)
+            return scan(basePackages, cl);
+        synchronized (mutex) {
+            resetIfScopeChanged(basePackages, cl);
+            if (lastPropertiesResult == null)
+                lastPropertiesResult = doScanPropertiesResources(basePackages, cl);
+            return lastPropertiesResult;
+        }
+    }
+
+    /**
+     * Discard the result of the last scan, such that the classpath is scanned again next time
+     */
+    public void clear() {
+        synchronized (mutex) {
+            lastBasePackages = null;
+            lastClassLoader = null;
+            lastClassNameFilter = null;
+            lastResult = null;
+            lastPropertiesResult = null;
+        }
+    }
+
+    /** Discard the results of the last scans if the base packages or the classloader changed, guarded by mutex */
+    private void resetIfScopeChanged(Set<String> basePackages, ClassLoader cl) {
+        if (lastClassLoader == cl && basePackages.equals(lastBasePackages))
+            return;
+        lastBasePackages = new HashSet<>(basePackages);
+        lastClassLoader = cl;
+        lastClassNameFilter = null;
+        lastResult = null;
+        lastPropertiesResult = null;
+    }
+
+    /**
+     * Scan the classes and the properties files
+     *
+     * @param knownPropertiesResources properties files found by the previous scan, the properties files are not
+     *                                 walked again if it's not null
+     */
+    private ClassPathScanResult doScan(Set<String> basePackages, ClassNameFilter filter, ClassLoader cl,
+                                       Set<String> knownPropertiesResources) {
+        final boolean scanProperties = knownPropertiesResources == null;
+        long start = System.nanoTime();
+        ScanRecorder recorder = new ScanRecorder();
+        Set<ClassPathRoot> roots = ClassPathRoots.forPackages(basePackages, cl);
+        String marker = this.indexedRootMarker;
+        Set<ClassPathRoot> indexedRoots = marker != null ? ClassPathRoots.forResource(marker, cl) : Collections.emptySet();
+        String beanClassesCacheName = marker != null ? UNINDEXED_BEAN_CLASSES_CACHE_NAME : BEAN_CLASSES_CACHE_NAME;
+
+        // try the cache first, the classpath is only scanned when the fingerprint doesn't match
+        ScanCache cache = this.scanCache;
+        ClassPathFingerprint fingerprint = null;
+        if (cache != null) {
+            fingerprint = ClassPathFingerprint.compute(roots, basePackages, filter);
+            List<String> beanClassNames = cache.read(beanClassesCacheName, fingerprint);
+            Collection<String> propertiesResources = scanProperties ?
+                    cache.read(PROPERTIES_CACHE_NAME, fingerprint) : knownPropertiesResources;
+            if (beanClassNames != null && propertiesResources != null) {
+                recorder.recordCacheHit();
+                recorder.recordAnnotationHits(beanClassNames.size());
+                recorder.recordElapsedNanos(System.nanoTime() - start);
+                return new ClassPathScanResult(new LinkedHashSet<>(beanClassNames),
+                        new LinkedHashSet<>(propertiesResources), recorder.toReport(), false);
+            }
+            recorder.recordCacheMiss();
+        }
+
+        Set<String> propertiesResources = scanProperties ? ConcurrentHashMap.newKeySet() : null;
+        Set<String> beanClassNames = walk(roots, indexedRoots, basePackages, filter, cl, recorder, propertiesResources);
+        Set<String> sortedResources = new TreeSet<>(scanProperties ? propertiesResources : knownPropertiesResources);
+        if (cache != null) {
+            cache.write(beanClassesCacheName, fingerprint, beanClassNames);
+            if (scanProperties)
+                cache.write(PROPERTIES_CACHE_NAME, fingerprint, sortedResources);
+        }
+        recorder.recordAnnotationHits(beanClassNames.size());
+        recorder.recordElapsedNanos(System.nanoTime() - start);
+        return new ClassPathScanResult(beanClassNames, sortedResources, recorder.toReport(), false);
+    }
+
+    /**
+     * Walk the roots for the classes, and the properties files if propertiesResources is not null
+     *
+     * @param indexedRoots        roots whose classes are indexed, their class files are not read
+     * @param propertiesResources set that collects the properties files found (nullable, if they are not scanned)
+     * @return names of the classes annotated with {@link MBean}
+     */
+    private Set<String> walk(Set<ClassPathRoot> roots, Set<ClassPathRoot> indexedRoots, Set<String> basePackages,
+                             ClassNameFilter filter, ClassLoader cl, ScanRecorder recorder,
+                             Set<String> propertiesResources) {
+        final boolean scanProperties = propertiesResources != null;
+        // classes that have at least one annotation
+        Map<String, ClassFileInfo> annotated = new ConcurrentHashMap<>();
+        new ClassPathWalker(parallelism, recorder).walk(
+                roots,
+                entryNameRules(basePackages, scanProperties),
+                entryFilter(basePackages, filter, scanProperties),
+                (root, entry) -> {
+                    String name = entry.getName();
+                    if (name.endsWith(PROPERTIES_FILE_SUFFIX)) {
+                        propertiesResources.add(name);
+                        return;
+                    }
+                    if (indexedRoots.contains(root))
+                        return;
+                    ClassFileInfo info;
+                    try {
+                        info = ClassFileParser.parse(entry.read());
+                    } catch (IllegalArgumentException e) {
+                        // e.g., a corrupted class file, it's skipped rather than failing the whole scan
+                        LogUtil.info(logger, "Skipped malformed class file %s in %s, %s", name, root, e.getMessage());
+                        return;
+                    }
+                    if (!info.getAnnotationNames().isEmpty())
+                        annotated.putIfAbsent(info.getClassName(), info);
+                });
+        return findBeanClassNames(annotated, cl);
+    }
+
+    /**
+     * Scan the properties files only
+     */
+    private ClassPathScanResult doScanPropertiesResources(Set<String> basePackages, ClassLoader cl) {
+        long start = System.nanoTime();
+        ScanRecorder recorder = new ScanRecorder();
+        Set<ClassPathRoot> roots = ClassPathRoots.forPackages(basePackages, cl);
+
+        // the filter of classes doesn't affect the properties files
+        ScanCache cache = this.scanCache;
+        ClassPathFingerprint fingerprint = null;
+        if (cache != null) {
+            fingerprint = ClassPathFingerprint.compute(roots, basePackages, ClassNameFilter.ACCEPT_ALL);
+            List<String> propertiesResources = cache.read(PROPERTIES_CACHE_NAME, fingerprint);
+            if (propertiesResources != null) {
+                recorder.recordCacheHit();
+                recorder.recordElapsedNanos(System.nanoTime() - start);
+                return new ClassPathScanResult(Collections.emptySet(), new LinkedHashSet<>(propertiesResources),
+                        recorder.toReport(), true);
+            }
+            recorder.recordCacheMiss();
+        }
+
+        Set<String> propertiesResources = ConcurrentHashMap.newKeySet();
+        new ClassPathWalker(parallelism, recorder).walk(
+                roots,
+                Collections.singletonList(new EntryNameRule("", PROPERTIES_FILE_SUFFIX)),
+                name -> true,
+                (root, entry) -> propertiesResources.add(entry.getName()));
+
+        Set<String> sortedResources = new TreeSet<>(propertiesResources);
+        if (cache != null)
+            cache.write(PROPERTIES_CACHE_NAME, fingerprint, sortedResources);
+        recorder.recordElapsedNanos(System.nanoTime() - start);
+        return new ClassPathScanResult(Collections.emptySet(), sortedResources, recorder.toReport(), true);
+    }
+
+    /**
+     * Rules of entries: class files within the base packages, and properties files anywhere if scanProperties is true
+     */
+    private static List<EntryNameRule> entryNameRules(Set<String> basePackages, boolean scanProperties) {
+        List<EntryNameRule> rules = new ArrayList<>();
+        for (String p : basePackages) {
+            rules.add(EntryNameRule.forPackage(p, CLASS_FILE_SUFFIX));
+        }
+        if (scanProperties)
+            rules.add(new EntryNameRule("", PROPERTIES_FILE_SUFFIX));
+        return rules;
+    }
+
+    /**
+     * Filter of entries: class files within the base packages and accepted by the filter, and properties files anywhere
+     * if scanProperties is true
+     */
+    private static Predicate<String> entryFilter(Set<String> basePackages, ClassNameFilter filter,
+                                                 boolean scanProperties) {
+        return name -> (scanProperties && name.endsWith(PROPERTIES_FILE_SUFFIX))
+                || (name.endsWith(CLASS_FILE_SUFFIX)
+                && !name.endsWith("module-info.class")
+                && !name.endsWith("package-info.class")
+                && filter.accepts(name)
+                && PackageScopeUtil.isInPackages(toClassName(name), basePackages));
+    }
+
+    /**
+     * Find names of the classes that are annotated with {@link MBean}, either directly or through a composed annotation
+     *
+     * @param annotated classes that have at least one annotation, also used to resolve the composed annotations
+     * @param cl        classloader used to read the composed annotations that are not scanned, e.g., those in other
+     *                  packages
+     */
+    private static Set<String> findBeanClassNames(Map<String, ClassFileInfo> annotated, ClassLoader cl) {
+        // annotation's name -> whether it's @MBean or annotated with @MBean
+        Map<String, Boolean> isBeanAnnotation = new HashMap<>();
+        isBeanAnnotation.put(MBEAN_NAME, true);
+
+        Set<String> beanClassNames = new TreeSet<>();
+        for (ClassFileInfo info : annotated.values()) {
+            // annotation types are not beans, e.g., the composed annotations
+            if (info.isAnnotation())
+                continue;
+            for (String annt : info.getAnnotationNames()) {
+                Boolean isBean = isBeanAnnotation.computeIfAbsent(annt, a -> isComposedBeanAnnotation(a, annotated, cl));
+                if (isBean) {
+                    beanClassNames.add(info.getClassName());
+                    break;
+                }
+            }
+        }
+        return beanClassNames;
+    }
+
+    private static boolean isComposedBeanAnnotation(String annotationName, Map<String, ClassFileInfo> scanned,
+                                                    ClassLoader cl) {
+        ClassFileInfo info = scanned.get(annotationName);
+        if (info == null)
+            info = readClassFile(annotationName, cl);
+        return info != null && info.isAnnotation() && info.getAnnotationNames().contains(MBEAN_NAME);
+    }
+
+    /** Read class file through the classloader without loading the class */
+    private static ClassFileInfo readClassFile(String className, ClassLoader cl) {
+        try (InputStream in = cl.getResourceAsStream(className.replace('.', '/') + CLASS_FILE_SUFFIX)) {
+            if (in == null)
+                return null;
+            byte[] buf = new byte[4096];
+            int n = 0;
+            int r;
+            while ((r = in.read(buf, n, buf.length - n)) != -1) {
+                n += r;
+                if (n == buf.length)
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            return ClassFileParser.parse(ByteBuffer.wrap(buf, 0, n));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read class file of " + className, e);
+        } catch (IllegalArgumentException e) {
+            LogUtil.info(logger, "Skipped malformed class file of %s, %s", className, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Convert entry name to class name, e.g., com/curtisnewbie/App.class -> com.curtisnewbie.App */
+    private static String toClassName(String entryName) {
+        return entryName.substring(0, entryName.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.');
+    }
+}
@@ -0,0 +1,88 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A root of the classpath, which is either a directory or an archive (e.g., a jar)
+ * <p>
+ * A root may also be nested in an archive, e.g., {@code BOOT-INF/classes/} or {@code BOOT-INF/lib/dep.jar} in an
+ * executable fat jar, in which case {@link #getPath()} is the outer archive, and {@link #getNestedPath()} is the
+ * location of the root in it.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ClassPathRoots
+ * @see FatJarLayout
+ */
+public final class ClassPathRoot {
+
+    private final Path path;
+    private final String nestedPath;
+    private final boolean isDirectory;
+
+    public ClassPathRoot(Path path) {
+        this(path, "");
+    }
+
+    /**
+     * @param path       path of the directory or the archive
+     * @param nestedPath location of the root in the archive, either a directory that ends with {@code '/'} (e.g.,
+     *                   {@code BOOT-INF/classes/}) or a nested archive (e.g., {@code BOOT-INF/lib/dep.jar}), an empty
+     *                   string if the root is not nested
+     */
+    public ClassPathRoot(Path path, String nestedPath) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(nestedPath);
+        this.path = path.toAbsolutePath().normalize();
+        this.nestedPath = nestedPath;
+        this.isDirectory = nestedPath.isEmpty() && Files.isDirectory(this.path);
+    }
+
+    /**
+     * Get path of the directory or the archive, if the root is nested, it's the path of the outer archive
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Get location of the root in the outer archive, or an empty string if the root is not nested
+     */
+    public String getNestedPath() {
+        return nestedPath;
+    }
+
+    /**
+     * Check whether the root is nested in an archive
+     */
+    public boolean isNested() {
+        return !nestedPath.isEmpty();
+    }
+
+    /**
+     * Check whether the root is a directory, if not, it's an archive or it's nested in an archive
+     */
+    public boolean isDirectory() {
+        return isDirectory;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClassPathRoot)) return false;
+        ClassPathRoot that = (ClassPathRoot) o;
+        return path.equals(that.path) && nestedPath.equals(that.nestedPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * path.hashCode() + nestedPath.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isNested() ? path + "!/" + nestedPath : path.toString();
+    }
+}
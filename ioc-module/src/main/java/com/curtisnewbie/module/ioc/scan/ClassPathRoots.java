@@ -0,0 +1,229 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import com.curtisnewbie.module.ioc.util.PackageScopeUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Resolver of {@link ClassPathRoot}
+ *
+ * @author yongjie.zhuang
+ */
+public final class ClassPathRoots {
+
+    private static final String FILE_PROTOCOL = "file";
+    private static final String JAR_PROTOCOL = "jar";
+    private static final String JAR_SEPARATOR = "!/";
+    /** e.g., jar:nested:/path/to/app.jar/!BOOT-INF/classes/!/com/curtisnewbie, used by Spring Boot 3.2+ */
+    private static final String NESTED_PROTOCOL = "nested:";
+    private static final String NESTED_SEPARATOR = "/!";
+
+    private ClassPathRoots() {
+    }
+
+    /**
+     * Resolve the classpath roots that contain any of the given packages
+     * <p>
+     * The roots are resolved through {@link ClassLoader#getResources(String)}, so the roots that don't contain the
+     * packages are pruned before any of them is opened. Note that archives without directory entries can't be found
+     * this way, unless the root package is requested, in which case all the roots visible to the classloader are
+     * returned.
+     * </p>
+     * <p>
+     * The roots nested in executable fat jars (e.g., {@code jar:file:/app.jar!/BOOT-INF/classes!/com/curtisnewbie}) are
+     * resolved as well, they are dropped if the outer archive itself is a root and it's a fat jar, since the {@link
+     * FatJarLayout} covers them when the outer archive is walked.
+     * </p>
+     *
+     * @param packages    base packages
+     * @param classLoader classloader
+     * @return classpath roots, in the order the classloader sees them
+     */
+    public static Set<ClassPathRoot> forPackages(Collection<String> packages, ClassLoader classLoader) {
+        Objects.requireNonNull(packages);
+        Objects.requireNonNull(classLoader);
+
+        Set<ClassPathRoot> roots = new LinkedHashSet<>();
+        for (String p : packages) {
+            if (p.equals(PackageScopeUtil.ROOT_PACKAGE))
+                roots.addAll(forAll(classLoader));
+            else
+                roots.addAll(forPackage(p, classLoader));
+        }
+        removeCoveredNestedRoots(roots);
+        return roots;
+    }
+
+    private static Set<ClassPathRoot> forPackage(String packageName, ClassLoader classLoader) {
+        return forResource(packageName.replace('.', '/'), classLoader);
+    }
+
+    private static void removeCoveredNestedRoots(Set<ClassPathRoot> roots) {
+        Set<Path> outerArchives = new HashSet<>();
+        for (ClassPathRoot r : roots) {
+            if (!r.isNested() && !r.isDirectory())
+                outerArchives.add(r.getPath());
+        }
+        // the outer archives are only checked when they have nested roots, which is rare
+        Map<Path, Boolean> isFatJar = new HashMap<>();
+        roots.removeIf(r -> r.isNested()
+                && outerArchives.contains(r.getPath())
+                && FatJarLayout.isCoveredByOuterArchive(r.getNestedPath())
+                && isFatJar.computeIfAbsent(r.getPath(), FatJarLayout::isFatJar));
+    }
+
+    /**
+     * Resolve the classpath roots that contain the given resource
+     *
+     * @param resourceName name of the resource, e.g., {@code META-INF/ioc-module/mbean.index}
+     * @param classLoader  classloader
+     * @return classpath roots, in the order the classloader sees them
+     */
+    public static Set<ClassPathRoot> forResource(String resourceName, ClassLoader classLoader) {
+        Objects.requireNonNull(resourceName);
+        Objects.requireNonNull(classLoader);
+
+        Set<ClassPathRoot> roots = new LinkedHashSet<>();
+        for (URL url : getResources(resourceName, classLoader)) {
+            ClassPathRoot root = toRoot(url, resourceName);
+            if (root != null)
+                roots.add(root);
+        }
+        return roots;
+    }
+
+    private static Set<ClassPathRoot> forAll(ClassLoader classLoader) {
+        Set<ClassPathRoot> roots = new LinkedHashSet<>();
+        for (URL url : getResources("", classLoader)) {
+            addIfExists(roots, toPath(url));
+        }
+        // URLClassLoader (before java 9, the app classloader is a URLClassLoader as well)
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    if (FILE_PROTOCOL.equals(url.getProtocol()))
+                        addIfExists(roots, toPath(url));
+                    else if (JAR_PROTOCOL.equals(url.getProtocol())) {
+                        // e.g., jar:file:/path/to/app.jar!/BOOT-INF/lib/dep.jar!/
+                        ClassPathRoot root = toRoot(url, "");
+                        if (root != null)
+                            roots.add(root);
+                    }
+                }
+            }
+        }
+        // app classpath
+        String classPath = System.getProperty("java.class.path");
+        if (classPath != null) {
+            for (String p : classPath.split(File.pathSeparator)) {
+                if (!p.isEmpty())
+                    addIfExists(roots, Paths.get(p));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Convert the URL of a resource to the root that contains it
+     *
+     * @param url          url of the resource
+     * @param resourceName name of the resource, e.g., {@code com/curtisnewbie}
+     * @return root (nullable if the url is not supported)
+     */
+    private static ClassPathRoot toRoot(URL url, String resourceName) {
+        String protocol = url.getProtocol();
+        if (JAR_PROTOCOL.equals(protocol)) {
+            // jar:file:/path/to/app.jar!/com/curtisnewbie, or nested in a fat jar, e.g.,
+            // jar:file:/path/to/app.jar!/BOOT-INF/classes!/com/curtisnewbie
+            String file = url.getFile();
+            int sep = file.lastIndexOf(JAR_SEPARATOR);
+            if (sep < 0)
+                return null;
+            return toArchiveRoot(file.substring(0, sep));
+        }
+        if (FILE_PROTOCOL.equals(protocol)) {
+            Path p = toPath(url);
+            if (p == null)
+                return null;
+            // strip the package path, e.g., /path/to/classes/com/curtisnewbie -> /path/to/classes
+            int depth = resourceName.split("/").length;
+            for (int i = 0; i < depth && p != null; i++)
+                p = p.getParent();
+            return p == null ? null : new ClassPathRoot(p);
+        }
+        return null;
+    }
+
+    /**
+     * Convert the location of an archive to root
+     *
+     * @param location location of the archive, e.g., {@code file:/path/to/app.jar}, {@code
+     *                 file:/path/to/app.jar!/BOOT-INF/lib/dep.jar} or {@code nested:/path/to/app.jar/!BOOT-INF/classes/}
+     * @return root (nullable if the location is not supported)
+     */
+    private static ClassPathRoot toArchiveRoot(String location) {
+        String outer;
+        String nested;
+        if (location.startsWith(NESTED_PROTOCOL)) {
+            int sep = location.indexOf(NESTED_SEPARATOR);
+            if (sep < 0)
+                return null;
+            outer = location.substring(NESTED_PROTOCOL.length(), sep);
+            nested = location.substring(sep + NESTED_SEPARATOR.length());
+            Path p = Paths.get(outer);
+            return Files.exists(p) ? new ClassPathRoot(p, toNestedPath(nested)) : null;
+        }
+
+        int sep = location.indexOf(JAR_SEPARATOR);
+        outer = sep < 0 ? location : location.substring(0, sep);
+        nested = sep < 0 ? "" : location.substring(sep + JAR_SEPARATOR.length());
+        // only a single level of nesting is supported
+        if (nested.contains(JAR_SEPARATOR))
+            return null;
+        Path p;
+        try {
+            p = toPath(new URL(outer));
+        } catch (IOException e) {
+            return null;
+        }
+        return p == null ? null : new ClassPathRoot(p, toNestedPath(nested));
+    }
+
+    /** Nested directory always ends with '/', e.g., BOOT-INF/classes -> BOOT-INF/classes/ */
+    private static String toNestedPath(String nested) {
+        if (nested.isEmpty() || nested.endsWith("/") || nested.endsWith(FatJarLayout.ARCHIVE_SUFFIX))
+            return nested;
+        return nested + "/";
+    }
+
+    private static Path toPath(URL url) {
+        if (!FILE_PROTOCOL.equals(url.getProtocol()))
+            return null;
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return Paths.get(url.getPath());
+        }
+    }
+
+    private static void addIfExists(Set<ClassPathRoot> roots, Path p) {
+        if (p != null && Files.exists(p))
+            roots.add(new ClassPathRoot(p));
+    }
+
+    private static List<URL> getResources(String name, ClassLoader classLoader) {
+        try {
+            return Collections.list(classLoader.getResources(name));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to find resources of " + name, e);
+        }
+    }
+}
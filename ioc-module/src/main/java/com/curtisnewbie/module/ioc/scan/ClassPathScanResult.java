@@ -0,0 +1,58 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Result of a single walk of the classpath by {@link ClassPathIndex}
+ *
+ * @author yongjie.zhuang
+ */
+public final class ClassPathScanResult {
+
+    private final Set<String> beanClassNames;
+    private final Set<String> propertiesResources;
+    private final ScanReport scanReport;
+    private final boolean propertiesOnly;
+
+    ClassPathScanResult(Set<String> beanClassNames, Set<String> propertiesResources, ScanReport scanReport,
+                        boolean propertiesOnly) {
+        this.beanClassNames = Collections.unmodifiableSet(beanClassNames);
+        this.propertiesResources = Collections.unmodifiableSet(propertiesResources);
+        this.scanReport = scanReport;
+        this.propertiesOnly = propertiesOnly;
+    }
+
+    /**
+     * Get binary names of the classes annotated with {@link com.curtisnewbie.module.ioc.annotations.MBean} (either
+     * directly or through a composed annotation) that are within the base packages
+     */
+    public Set<String> getBeanClassNames() {
+        return beanClassNames;
+    }
+
+    /**
+     * Get relative paths of the properties files (e.g., {@code conf/app.properties}), they are found anywhere in the
+     * classpath entries that contain the base packages
+     */
+    public Set<String> getPropertiesResources() {
+        return propertiesResources;
+    }
+
+    /**
+     * Check if only the properties files are scanned, i.e., the class files are not read, and there is no bean class
+     * in the result
+     *
+     * @see ClassPathIndex#scanPropertiesResources(Set, ClassLoader)
+     */
+    public boolean isPropertiesOnly() {
+        return propertiesOnly;
+    }
+
+    /**
+     * Get report of the scan that produced this result
+     */
+    public ScanReport getScanReport() {
+        return scanReport;
+    }
+}
@@ -0,0 +1,371 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import com.curtisnewbie.module.ioc.util.LogUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Walker of the classpath, it walks through the entries of a number of {@link ClassPathRoot}
+ * <p>
+ * The roots are split across a {@link ForkJoinPool}, each root is walked as a separate task, and the sub-directories
+ * of a directory root are forked as separate tasks as well. The entries are filtered by name before they are read, so
+ * the entries rejected by the filter are never opened.
+ * </p>
+ * <p>
+ * The central directories of the archives are parsed directly (see {@link ZipArchive}), the {@link EntryNameRule}s
+ * are checked against the raw bytes of the names, so nothing is read for the entries that are rejected. The archives
+ * are memory-mapped (except on Windows, where they are read through file channels), and they are closed once they are
+ * walked, so the entries can only be read by the visitor during the walk. It falls back to
+ * {@link ZipFile} for the archives that are not supported, e.g., the ones larger than 2GB or using ZIP64.
+ * </p>
+ * <p>
+ * Executable fat jars are walked according to the {@link FatJarLayout}, the nested archives are read in place and
+ * forked as separate tasks.
+ * </p>
+ * <p>
+ * The archives that can't be read (e.g., corrupted ones) are logged and skipped, they don't fail the whole walk.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public class ClassPathWalker {
+
+    private static final Logger logger = LogUtil.getLogger(ClassPathWalker.class);
+
+    /** Default parallelism, it's the number of available processors */
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private final int parallelism;
+
+    /** recorder of the statistics (nullable) */
+    private final ScanRecorder recorder;
+
+    /**
+     * @param parallelism number of threads used for walking
+     */
+    public ClassPathWalker(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * @param parallelism number of threads used for walking
+     * @param recorder    recorder of the time spent on each root, the entries visited and the bytes read (nullable)
+     */
+    public ClassPathWalker(int parallelism, ScanRecorder recorder) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be greater than 0, but was " + parallelism);
+        this.parallelism = parallelism;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Walk through the roots
+     *
+     * @param roots       roots
+     * @param entryFilter filter of entries' names (e.g., {@code com/curtisnewbie/App.class})
+     * @param visitor     visitor of the entries accepted by the filter
+     */
+    public void walk(Collection<ClassPathRoot> roots, Predicate<String> entryFilter, ClassPathEntryVisitor visitor) {
+        walk(roots, null, entryFilter, visitor);
+    }
+
+    /**
+     * Walk through the roots
+     *
+     * @param roots       roots
+     * @param rules       rules of entries' names, an entry must match at least one of them, and the directories that
+     *                    can't contain any matching entry are skipped (nullable, if all entries are accepted)
+     * @param entryFilter filter of entries' names (e.g., {@code com/curtisnewbie/App.class}), it's only tested with
+     *                    the names that match the rules
+     * @param visitor     visitor of the entries accepted by the filter
+     */
+    public void walk(Collection<ClassPathRoot> roots, Collection<EntryNameRule> rules, Predicate<String> entryFilter,
+                     ClassPathEntryVisitor visitor) {
+        Objects.requireNonNull(roots);
+        Objects.requireNonNull(entryFilter);
+        Objects.requireNonNull(visitor);
+        if (roots.isEmpty())
+            return;
+        if (recorder != null)
+            visitor = recording(visitor, recorder);
+
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (ClassPathRoot r : roots) {
+            if (recorder != null)
+                recorder.recordRootWalked(r);
+            if (r.isDirectory())
+                tasks.add(new DirectoryTask(r, r.getPath(), "", rules, entryFilter, visitor, recorder));
+            else
+                tasks.add(new ArchiveTask(r, rules, entryFilter, visitor, recorder));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Task that walks a directory, sub-directories are forked */
+    private static final class DirectoryTask extends RecursiveAction {
+
+        private final ClassPathRoot root;
+        private final Path dir;
+        private final String prefix;
+        private final Collection<EntryNameRule> rules;
+        private final Predicate<String> entryFilter;
+        private final ClassPathEntryVisitor visitor;
+        private final ScanRecorder recorder;
+
+        DirectoryTask(ClassPathRoot root, Path dir, String prefix, Collection<EntryNameRule> rules,
+                      Predicate<String> entryFilter, ClassPathEntryVisitor visitor, ScanRecorder recorder) {
+            this.root = root;
+            this.dir = dir;
+            this.prefix = prefix;
+            this.rules = rules;
+            this.entryFilter = entryFilter;
+            this.visitor = visitor;
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    String name = prefix + p.getFileName().toString();
+                    if (Files.isDirectory(p)) {
+                        String dirName = name + "/";
+                        if (mayContain(rules, dirName))
+                            subTasks.add(new DirectoryTask(root, p, dirName, rules, entryFilter, visitor, recorder));
+                    } else if (matches(rules, name) && entryFilter.test(name)) {
+                        visitor.visit(root, new FileEntry(name, p));
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to walk directory " + dir, e);
+            }
+            recordNanos(recorder, root, start);
+            invokeAll(subTasks);
+        }
+    }
+
+    /** Task that walks an archive */
+    private static final class ArchiveTask extends RecursiveAction {
+
+        private final ClassPathRoot root;
+        private final Collection<EntryNameRule> rules;
+        private final Predicate<String> entryFilter;
+        private final ClassPathEntryVisitor visitor;
+        private final ScanRecorder recorder;
+
+        ArchiveTask(ClassPathRoot root, Collection<EntryNameRule> rules, Predicate<String> entryFilter,
+                    ClassPathEntryVisitor visitor, ScanRecorder recorder) {
+            this.root = root;
+            this.rules = rules;
+            this.entryFilter = entryFilter;
+            this.visitor = visitor;
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            File file = root.getPath().toFile();
+            try (ZipArchive archive = ZipArchive.open(root)) {
+                if (archive != null) {
+                    recordNanos(recorder, root, start);
+                    // the nested archives share the file of the outer one, they are all walked before it's closed
+                    new ZipArchiveTask(archive, rules, entryFilter, visitor, recorder).invoke();
+                    return;
+                }
+            } catch (IOException e) {
+                // e.g., a corrupted archive, it's skipped rather than failing the whole walk
+                LogUtil.info(logger, "Skipped archive %s that can't be read, %s", root, e.getMessage());
+                return;
+            }
+            if (root.isNested()) {
+                LogUtil.info(logger, "Skipped archive %s, the outer archive is larger than 2GB or uses ZIP64", root);
+                return;
+            }
+
+            // not supported by ZipArchive, e.g., ZIP64, the nested archives are not walked in this case
+            try (ZipFile zf = new ZipFile(file)) {
+                Enumeration<? extends ZipEntry> entries = zf.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry ze = entries.nextElement();
+                    if (!ze.isDirectory() && matches(rules, ze.getName()) && entryFilter.test(ze.getName())) {
+                        visitor.visit(root, new ZipFileEntry(zf, ze));
+                    }
+                }
+            } catch (IOException e) {
+                LogUtil.info(logger, "Skipped archive %s that can't be read, %s", root, e.getMessage());
+            }
+            recordNanos(recorder, root, start);
+        }
+    }
+
+    /** Task that walks an opened archive, the nested archives are forked */
+    private static final class ZipArchiveTask extends RecursiveAction {
+
+        private final ZipArchive archive;
+        private final Collection<EntryNameRule> rules;
+        private final Predicate<String> entryFilter;
+        private final ClassPathEntryVisitor visitor;
+        private final ScanRecorder recorder;
+
+        ZipArchiveTask(ZipArchive archive, Collection<EntryNameRule> rules, Predicate<String> entryFilter,
+                          ClassPathEntryVisitor visitor, ScanRecorder recorder) {
+            this.archive = archive;
+            this.rules = rules;
+            this.entryFilter = entryFilter;
+            this.visitor = visitor;
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            List<ZipArchiveTask> subTasks = new ArrayList<>();
+            try {
+                for (ZipArchive nested : archive.walk(rules, entryFilter, visitor)) {
+                    if (recorder != null)
+                        recorder.recordRootWalked(nested.getRoot());
+                    subTasks.add(new ZipArchiveTask(nested, rules, entryFilter, visitor, recorder));
+                }
+            } catch (IOException e) {
+                // the entries visited so far are kept, the rest of the archive is skipped
+                LogUtil.info(logger, "Skipped archive %s that can't be read, %s", archive.getRoot(), e.getMessage());
+            }
+            recordNanos(recorder, archive.getRoot(), start);
+            invokeAll(subTasks);
+        }
+    }
+
+    private static void recordNanos(ScanRecorder recorder, ClassPathRoot root, long start) {
+        if (recorder != null)
+            recorder.recordRootNanos(root, System.nanoTime() - start);
+    }
+
+    /** Wrap the visitor to record the entries visited and the bytes read */
+    private static ClassPathEntryVisitor recording(ClassPathEntryVisitor visitor, ScanRecorder recorder) {
+        return (root, entry) -> {
+            recorder.recordEntryVisited(root);
+            visitor.visit(root, new ClassPathEntry() {
+                @Override
+                public String getName() {
+                    return entry.getName();
+                }
+
+                @Override
+                public ByteBuffer read() throws IOException {
+                    ByteBuffer buf = entry.read();
+                    recorder.recordBytesRead(root, buf.remaining());
+                    return buf;
+                }
+            });
+        };
+    }
+
+    private static boolean matches(Collection<EntryNameRule> rules, String name) {
+        if (rules == null)
+            return true;
+        for (EntryNameRule r : rules) {
+            if (r.matches(name))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean mayContain(Collection<EntryNameRule> rules, String dirName) {
+        if (rules == null)
+            return true;
+        for (EntryNameRule r : rules) {
+            if (r.mayContain(dirName))
+                return true;
+        }
+        return false;
+    }
+
+    private static final class FileEntry implements ClassPathEntry {
+
+        private final String name;
+        private final Path path;
+
+        FileEntry(String name, Path path) {
+            this.name = name;
+            this.path = path;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public ByteBuffer read() throws IOException {
+            return ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+    }
+
+    private static final class ZipFileEntry implements ClassPathEntry {
+
+        private final ZipFile zipFile;
+        private final ZipEntry zipEntry;
+
+        ZipFileEntry(ZipFile zipFile, ZipEntry zipEntry) {
+            this.zipFile = zipFile;
+            this.zipEntry = zipEntry;
+        }
+
+        @Override
+        public String getName() {
+            return zipEntry.getName();
+        }
+
+        @Override
+        public ByteBuffer read() throws IOException {
+            try (InputStream in = zipFile.getInputStream(zipEntry)) {
+                return ByteBuffer.wrap(readFully(in, zipEntry.getSize()));
+            }
+        }
+    }
+
+    private static byte[] readFully(InputStream in, long sizeHint) throws IOException {
+        byte[] buf = new byte[sizeHint > 0 ? (int) sizeHint : 8192];
+        int n = 0;
+        int r;
+        while (true) {
+            if (n == buf.length) {
+                // most likely the size is accurate, try to avoid copying
+                if ((r = in.read()) == -1)
+                    return buf;
+                buf = Arrays.copyOf(buf, buf.length * 2);
+                buf[n++] = (byte) r;
+            }
+            if ((r = in.read(buf, n, buf.length - n)) == -1)
+                return Arrays.copyOf(buf, n);
+            n += r;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Rule of the entries' names, an entry matches the rule if its name starts with the prefix and ends with the suffix
+ * <p>
+ * The rules are checked against the raw bytes of the names in the central directory of the archives, such that the
+ * names of the rejected entries are never decoded, and the directories that can't contain any matching entry are
+ * skipped as a whole.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ClassPathWalker
+ */
+public final class EntryNameRule {
+
+    private final String prefix;
+    private final String suffix;
+    private final byte[] prefixBytes;
+    private final byte[] suffixBytes;
+
+    /**
+     * @param prefix prefix of the names, e.g., {@code com/curtisnewbie/}, an empty string matches all names
+     * @param suffix suffix of the names, e.g., {@code .class}, an empty string matches all names
+     */
+    public EntryNameRule(String prefix, String suffix) {
+        this.prefix = Objects.requireNonNull(prefix);
+        this.suffix = Objects.requireNonNull(suffix);
+        this.prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        this.suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create a rule that matches the entries in the package (including sub-packages)
+     *
+     * @param packageName package name, e.g., {@code com.curtisnewbie}, an empty string matches all packages
+     * @param suffix      suffix of the names, e.g., {@code .class}
+     */
+    public static EntryNameRule forPackage(String packageName, String suffix) {
+        Objects.requireNonNull(packageName);
+        return new EntryNameRule(packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/", suffix);
+    }
+
+    /**
+     * Check if the name matches the rule
+     */
+    public boolean matches(String name) {
+        return name.length() >= prefix.length() + suffix.length() && name.startsWith(prefix) && name.endsWith(suffix);
+    }
+
+    /**
+     * Check if the name, encoded in UTF-8 at {@code [offset, offset + length)} of the buffer, matches the rule
+     */
+    boolean matches(ByteBuffer buf, int offset, int length) {
+        if (length < prefixBytes.length + suffixBytes.length)
+            return false;
+        for (int i = 0; i < prefixBytes.length; i++) {
+            if (buf.get(offset + i) != prefixBytes[i])
+                return false;
+        }
+        int suffixOffset = offset + length - suffixBytes.length;
+        for (int i = 0; i < suffixBytes.length; i++) {
+            if (buf.get(suffixOffset + i) != suffixBytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if the directory may contain entries that match the rule
+     *
+     * @param dirName name of the directory, ends with {@code '/'}, e.g., {@code com/curtisnewbie/}
+     */
+    public boolean mayContain(String dirName) {
+        return dirName.startsWith(prefix) || prefix.startsWith(dirName);
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EntryNameRule that = (EntryNameRule) o;
+        return prefix.equals(that.prefix) && suffix.equals(that.suffix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(prefix, suffix);
+    }
+
+    @Override
+    public String toString() {
+        return "EntryNameRule{" + prefix + "*" + suffix + "}";
+    }
+}
@@ -0,0 +1,114 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Layout of executable fat jars (e.g., Spring Boot jars and wars), where the application classes and the dependency
+ * jars are nested in the outer archive
+ * <p>
+ * The classes under {@code BOOT-INF/classes/} or {@code WEB-INF/classes/} are treated as if they are at the root of the
+ * archive, and the jars directly under {@code BOOT-INF/lib/}, {@code WEB-INF/lib/} or {@code lib/} are treated as
+ * separate roots.
+ * </p>
+ * <p>
+ * The layout is only applied to the archives whose manifest declares a fat jar launcher (see {@link
+ * #isFatJar(Manifest)}), the nested entries of an ordinary jar are not visible to the classloader, they are never
+ * walked even if they happen to match the layout.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public final class FatJarLayout {
+
+    /** directories of nested classes */
+    static final String[] CLASSES_DIRECTORIES = {"BOOT-INF/classes/", "WEB-INF/classes/"};
+
+    /** directories of nested archives */
+    static final String[] LIB_DIRECTORIES = {"BOOT-INF/lib/", "WEB-INF/lib/", "lib/"};
+
+    static final String ARCHIVE_SUFFIX = ".jar";
+
+    /** name of the manifest entry */
+    static final String MANIFEST_NAME = JarFile.MANIFEST_NAME;
+
+    /** attribute of the application's main class, it's written by the Spring Boot plugins */
+    private static final Attributes.Name START_CLASS = new Attributes.Name("Start-Class");
+
+    /** package of the launchers of Spring Boot jars and wars, e.g., {@code org.springframework.boot.loader.JarLauncher} */
+    private static final String LAUNCHER_PACKAGE_PREFIX = "org.springframework.boot.loader.";
+
+    private FatJarLayout() {
+    }
+
+    /**
+     * Check if the manifest is of an executable fat jar, i.e., the {@code Main-Class} is a fat jar launcher, or the
+     * {@code Start-Class} is declared
+     *
+     * @param manifest manifest (nullable, if the archive doesn't have one)
+     */
+    public static boolean isFatJar(Manifest manifest) {
+        if (manifest == null)
+            return false;
+        Attributes attributes = manifest.getMainAttributes();
+        if (attributes.containsKey(START_CLASS))
+            return true;
+        String mainClass = attributes.getValue(Attributes.Name.MAIN_CLASS);
+        return mainClass != null && mainClass.trim().startsWith(LAUNCHER_PACKAGE_PREFIX);
+    }
+
+    /**
+     * Check if the archive is an executable fat jar, see {@link #isFatJar(Manifest)}
+     *
+     * @param archive path to the archive
+     * @return false if it's not a fat jar or it can't be read
+     */
+    public static boolean isFatJar(Path archive) {
+        try (JarFile jf = new JarFile(archive.toFile(), false)) {
+            return isFatJar(jf.getManifest());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check if the entry is a nested archive, e.g., {@code BOOT-INF/lib/dep.jar}
+     *
+     * @param name name of the entry in the outer archive
+     */
+    public static boolean isNestedArchive(String name) {
+        if (!name.endsWith(ARCHIVE_SUFFIX))
+            return false;
+        for (String d : LIB_DIRECTORIES) {
+            if (name.startsWith(d) && name.indexOf('/', d.length()) < 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if the entry is a directory of nested classes, e.g., {@code BOOT-INF/classes/}
+     *
+     * @param name name of the entry in the outer archive
+     */
+    public static boolean isClassesDirectory(String name) {
+        for (String d : CLASSES_DIRECTORIES) {
+            if (d.equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if the nested root is covered when the outer archive is walked as a whole
+     *
+     * @param nestedPath location of the root in the outer archive
+     * @see ClassPathRoot#getNestedPath()
+     */
+    public static boolean isCoveredByOuterArchive(String nestedPath) {
+        return isNestedArchive(nestedPath) || isClassesDirectory(nestedPath);
+    }
+}
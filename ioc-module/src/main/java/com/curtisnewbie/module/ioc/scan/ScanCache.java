@@ -0,0 +1,145 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import com.curtisnewbie.module.ioc.util.LogUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Persistent cache of scanning results (e.g., names of bean classes, paths of resources), the results are keyed by
+ * {@link ClassPathFingerprint}
+ * <p>
+ * Each result is stored in a file in the cache directory, the file is named after the name of the result and the scope
+ * of the fingerprint, and it's read into a heap buffer at once. It's not memory-mapped, a mapped file stays locked
+ * until the buffer is garbage collected, then it can't be replaced on Windows. If the fingerprint stored in the file
+ * doesn't match, it's a cache miss, and the caller is expected to do a full scan and write the result back.
+ * </p>
+ * <p>
+ * No cache is used by default, it's enabled by {@link
+ * com.curtisnewbie.module.ioc.context.ConfigurableContextInitializer#setScanCache(ScanCache)}, or {@link
+ * ClassPathIndex#setScanCache(ScanCache)} when the index is created manually.
+ * </p>
+ * <p>
+ * File format: {@code magic (u4), version (u2), digest length (u2), digest, count (u4), [length (u2), UTF-8 bytes]...}
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public class ScanCache {
+
+    private static final Logger logger = LogUtil.getLogger(ScanCache.class);
+
+    private static final int MAGIC = 0x10C5CA4E;
+    private static final short VERSION = 1;
+    private static final String FILE_SUFFIX = ".cache";
+
+    private final Path directory;
+
+    /**
+     * @param directory directory where the cache files are stored, it's created when necessary
+     */
+    public ScanCache(Path directory) {
+        Objects.requireNonNull(directory);
+        this.directory = directory;
+    }
+
+    /**
+     * Create a cache in the default directory: {@code ${java.io.tmpdir}/ioc-module}
+     */
+    public static ScanCache inTempDirectory() {
+        return new ScanCache(Paths.get(System.getProperty("java.io.tmpdir"), "ioc-module"));
+    }
+
+    /**
+     * Read cached result
+     *
+     * @param name        name of the result, e.g., {@code mbean-classes}
+     * @param fingerprint fingerprint of the classpath
+     * @return cached values, or null if there is a cache miss
+     */
+    public List<String> read(String name, ClassPathFingerprint fingerprint) {
+        Path file = fileOf(name, fingerprint);
+        if (!Files.isRegularFile(file))
+            return null;
+
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.getInt() != MAGIC || buf.getShort() != VERSION)
+                return null;
+            byte[] digest = new byte[buf.getShort() & 0xFFFF];
+            buf.get(digest);
+            if (!fingerprint.matches(digest))
+                return null;
+
+            int count = buf.getInt();
+            List<String> values = new ArrayList<>(count);
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int len = buf.getShort() & 0xFFFF;
+                if (bytes.length < len)
+                    bytes = new byte[len];
+                buf.get(bytes, 0, len);
+                values.add(new String(bytes, 0, len, StandardCharsets.UTF_8));
+            }
+            return values;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            // corrupted or truncated, treat it as a miss, it will be overwritten
+            return null;
+        }
+    }
+
+    /**
+     * Write result to the cache, the previous result of the same name and scope is replaced
+     *
+     * @param name        name of the result, e.g., {@code mbean-classes}
+     * @param fingerprint fingerprint of the classpath
+     * @param values      values
+     */
+    public void write(String name, ClassPathFingerprint fingerprint, Collection<String> values) {
+        Path file = fileOf(name, fingerprint);
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(fingerprint.digestLength());
+                out.write(fingerprint.digest());
+                out.writeInt(values.size());
+                for (String v : values) {
+                    byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            // readers never see a partially written file
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the cache is only an optimisation, the next startup simply does a full scan again
+            LogUtil.info(logger, "Unable to write scan cache %s, %s", file, e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private Path fileOf(String name, ClassPathFingerprint fingerprint) {
+        return directory.resolve(name + "-" + fingerprint.getScopeId() + FILE_SUFFIX);
+    }
+}
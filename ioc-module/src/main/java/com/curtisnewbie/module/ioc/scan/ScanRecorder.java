@@ -0,0 +1,124 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recorder of the statistics of a scan, it's thread-safe, and it produces a {@link ScanReport}
+ *
+ * @author yongjie.zhuang
+ * @see ClassPathWalker
+ */
+public final class ScanRecorder {
+
+    private final Map<ClassPathRoot, RootRecord> roots = new ConcurrentHashMap<>();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder classesLoaded = new LongAdder();
+    private final LongAdder annotationHits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * Record a walk of the root, i.e., the root is walked once more
+     */
+    public void recordRootWalked(ClassPathRoot root) {
+        rootRecord(root).walks.increment();
+    }
+
+    /**
+     * Record time spent on walking the root
+     */
+    public void recordRootNanos(ClassPathRoot root, long nanos) {
+        rootRecord(root).nanos.add(nanos);
+    }
+
+    /**
+     * Record an entry visited
+     */
+    public void recordEntryVisited(ClassPathRoot root) {
+        rootRecord(root).entriesVisited.increment();
+    }
+
+    /**
+     * Record bytes read from an entry
+     */
+    public void recordBytesRead(ClassPathRoot root, long bytes) {
+        rootRecord(root).bytesRead.add(bytes);
+    }
+
+    /**
+     * Record the elapsed time of the scan, it's accumulated
+     */
+    public void recordElapsedNanos(long nanos) {
+        totalNanos.add(nanos);
+    }
+
+    public void recordClassesLoaded(long n) {
+        classesLoaded.add(n);
+    }
+
+    public void recordAnnotationHits(long n) {
+        annotationHits.add(n);
+    }
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /**
+     * Add all the statistics of the report to this recorder
+     *
+     * @param report report (nullable)
+     */
+    public void merge(ScanReport report) {
+        if (report == null)
+            return;
+        for (ScanReport.RootReport r : report.getRoots()) {
+            RootRecord rr = rootRecord(r.getRoot());
+            rr.walks.add(r.getWalks());
+            rr.nanos.add(r.getNanos());
+            rr.entriesVisited.add(r.getEntriesVisited());
+            rr.bytesRead.add(r.getBytesRead());
+        }
+        totalNanos.add(report.getTotalNanos());
+        classesLoaded.add(report.getClassesLoaded());
+        annotationHits.add(report.getAnnotationHits());
+        cacheHits.add(report.getCacheHits());
+        cacheMisses.add(report.getCacheMisses());
+    }
+
+    /**
+     * Create report of the statistics recorded so far
+     */
+    public ScanReport toReport() {
+        List<ScanReport.RootReport> rootReports = new ArrayList<>(roots.size());
+        for (Map.Entry<ClassPathRoot, RootRecord> e : roots.entrySet()) {
+            RootRecord r = e.getValue();
+            rootReports.add(new ScanReport.RootReport(e.getKey(), r.walks.sum(), r.nanos.sum(), r.entriesVisited.sum(),
+                    r.bytesRead.sum()));
+        }
+        rootReports.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+        return new ScanReport(rootReports, totalNanos.sum(), classesLoaded.sum(), annotationHits.sum(), cacheHits.sum(),
+                cacheMisses.sum());
+    }
+
+    private RootRecord rootRecord(ClassPathRoot root) {
+        Objects.requireNonNull(root);
+        return roots.computeIfAbsent(root, k -> new RootRecord());
+    }
+
+    private static final class RootRecord {
+        private final LongAdder walks = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder entriesVisited = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+    }
+}
@@ -0,0 +1,163 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report of a scan, it's immutable
+ * <p>
+ * The time spent on each root is the time spent by the threads walking it, the roots are walked concurrently, so the
+ * sum of them may exceed the {@link #getTotalNanos() total time}.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ScanRecorder
+ */
+public final class ScanReport {
+
+    private final List<RootReport> roots;
+    private final long totalNanos;
+    private final long classesLoaded;
+    private final long annotationHits;
+    private final long cacheHits;
+    private final long cacheMisses;
+
+    ScanReport(List<RootReport> roots, long totalNanos, long classesLoaded, long annotationHits, long cacheHits,
+               long cacheMisses) {
+        this.roots = Collections.unmodifiableList(roots);
+        this.totalNanos = totalNanos;
+        this.classesLoaded = classesLoaded;
+        this.annotationHits = annotationHits;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+
+    /**
+     * Get reports of the roots walked, it's empty if the classpath is not walked at all, e.g., the result is cached
+     */
+    public List<RootReport> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Get the elapsed time of the scan in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get number of entries visited in all roots
+     */
+    public long getEntriesVisited() {
+        long n = 0;
+        for (RootReport r : roots)
+            n += r.entriesVisited;
+        return n;
+    }
+
+    /**
+     * Get number of bytes read in all roots
+     */
+    public long getBytesRead() {
+        long n = 0;
+        for (RootReport r : roots)
+            n += r.bytesRead;
+        return n;
+    }
+
+    /**
+     * Get number of classes loaded
+     */
+    public long getClassesLoaded() {
+        return classesLoaded;
+    }
+
+    /**
+     * Get number of classes found annotated with {@link com.curtisnewbie.module.ioc.annotations.MBean}
+     */
+    public long getAnnotationHits() {
+        return annotationHits;
+    }
+
+    /**
+     * Get number of times the result is found in {@link ScanCache}
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Get number of times the result is not found in {@link ScanCache}, and the classpath is walked
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScanReport{roots=%d, entriesVisited=%d, bytesRead=%d, classesLoaded=%d, annotationHits=%d, "
+                        + "cacheHits=%d, cacheMisses=%d, totalMillis=%d}",
+                roots.size(), getEntriesVisited(), getBytesRead(), classesLoaded, annotationHits, cacheHits, cacheMisses,
+                TimeUnit.NANOSECONDS.toMillis(totalNanos));
+    }
+
+    /**
+     * Report of a single {@link ClassPathRoot}
+     */
+    public static final class RootReport {
+
+        private final ClassPathRoot root;
+        private final long walks;
+        private final long nanos;
+        private final long entriesVisited;
+        private final long bytesRead;
+
+        RootReport(ClassPathRoot root, long walks, long nanos, long entriesVisited, long bytesRead) {
+            this.root = root;
+            this.walks = walks;
+            this.nanos = nanos;
+            this.entriesVisited = entriesVisited;
+            this.bytesRead = bytesRead;
+        }
+
+        public ClassPathRoot getRoot() {
+            return root;
+        }
+
+        /**
+         * Get number of times the root is walked, it's greater than 1 if the root is walked again by another scan
+         */
+        public long getWalks() {
+            return walks;
+        }
+
+        /**
+         * Get time spent on walking the root in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Get number of entries visited, i.e., the entries accepted by the filters
+         */
+        public long getEntriesVisited() {
+            return entriesVisited;
+        }
+
+        /**
+         * Get number of bytes read from the entries
+         */
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RootReport{root=%s, walks=%d, entriesVisited=%d, bytesRead=%d, millis=%d}",
+                    root, walks, entriesVisited, bytesRead, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import com.curtisnewbie.module.ioc.util.LogUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.jar.Manifest;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Zip archive (e.g., a jar) whose central directory is parsed directly
+ * <p>
+ * The archive is memory-mapped, the entries are filtered by the raw bytes of their names in the central directory
+ * before anything else is read, and the stored entries are read as slices of the mapping, without copying. The file
+ * channel is closed as soon as the file is mapped, the mapping itself is released when it's garbage collected.
+ * </p>
+ * <p>
+ * On Windows, a mapped file stays locked until the mapping is released, i.e., it can't be deleted or replaced, so the
+ * archive is not mapped there. Instead, the central directory is copied out of the file at once, and the content of
+ * an entry is read from the file channel on demand, the channel is closed once the archive is walked.
+ * </p>
+ * <p>
+ * The archives that are larger than 2GB or use ZIP64 are not supported, {@link #open(ClassPathRoot)} returns null for
+ * them, and the caller should fall back to {@link java.util.zip.ZipFile}.
+ * </p>
+ * <p>
+ * Nested archives (see {@link FatJarLayout}) are only walked when the manifest declares a fat jar launcher, they are read
+ * in place, a stored nested archive is just a region of the outer one, a deflated one is inflated in memory, nothing
+ * is extracted to temp files. They share the mapping or the file channel of the outer archive, so they must be walked
+ * before the outer archive is closed.
+ * </p>
+ * <p>
+ * This class is not thread-safe, an archive should be walked by a single thread, but the nested archives can be walked
+ * by other threads.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see <a href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">ZIP File Format Specification</a>
+ */
+final class ZipArchive implements Closeable {
+
+    private static final Logger logger = LogUtil.getLogger(ZipArchive.class);
+
+    private static final int EOCD_SIG = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int ZIP64_EOCD_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_EOCD_LOCATOR_SIZE = 20;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int LOC_SIZE = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int FLAG_ENCRYPTED = 1;
+
+    /** whether the archives are memory-mapped, they are not on Windows, where a mapped file is locked */
+    private static final boolean MAP_ARCHIVES = !System.getProperty("os.name", "").startsWith("Windows");
+
+    private static final byte[][] CLASSES_DIRECTORIES = toBytes(FatJarLayout.CLASSES_DIRECTORIES);
+    private static final byte[] ARCHIVE_SUFFIX = FatJarLayout.ARCHIVE_SUFFIX.getBytes(StandardCharsets.UTF_8);
+
+    /** root of the entries in this archive */
+    private final ClassPathRoot root;
+    /** where the archive is stored, i.e., a region of the file, or a buffer in memory */
+    private final Region region;
+    /** offset of the archive in the region, it's not 0 when there is something prepended, e.g., a launch script */
+    private final int base;
+    /** central directory, either a copy or a slice of the mapping, in little-endian */
+    private final ByteBuffer cen;
+    /** only the entries under this directory are walked (nullable) */
+    private final byte[] entryPrefix;
+    /** whether the fat jar layout is applied, see {@link FatJarLayout}, it's only set before the archive is walked */
+    private boolean isFatJar;
+    /** whether the file channel is opened by this archive, i.e., it's not a nested one */
+    private final boolean ownsChannel;
+    private Inflater inflater;
+
+    private ZipArchive(ClassPathRoot root, Region region, int base, ByteBuffer cen, byte[] entryPrefix,
+                       boolean isFatJar, boolean ownsChannel) {
+        this.root = root;
+        this.region = region;
+        this.base = base;
+        this.cen = cen;
+        this.entryPrefix = entryPrefix;
+        this.isFatJar = isFatJar;
+        this.ownsChannel = ownsChannel;
+    }
+
+    /**
+     * Open the archive of the root, it must be closed once it's walked
+     * <p>
+     * If the root is not nested, the {@link FatJarLayout} is applied when it's a fat jar (see {@link
+     * FatJarLayout#isFatJar(Manifest)}), otherwise, only the nested root is walked.
+     * </p>
+     *
+     * @param root root
+     * @return archive, or null if it's not supported (e.g., larger than 2GB, or it uses ZIP64)
+     * @throws ZipException if it's not a valid zip archive
+     */
+    static ZipArchive open(ClassPathRoot root) throws IOException {
+        return open(root, MAP_ARCHIVES);
+    }
+
+    /**
+     * Open the archive of the root, see {@link #open(ClassPathRoot)}
+     *
+     * @param root root
+     * @param map  whether the archive is memory-mapped, or read through the file channel
+     */
+    static ZipArchive open(ClassPathRoot root, boolean map) throws IOException {
+        FileChannel fc = FileChannel.open(root.getPath(), StandardOpenOption.READ);
+        try {
+            long size = fc.size();
+            if (size > Integer.MAX_VALUE) {
+                fc.close();
+                return null;
+            }
+            if (map) {
+                // the mapping remains valid after the channel is closed
+                ByteBuffer mapped;
+                try {
+                    mapped = fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } finally {
+                    fc.close();
+                }
+                return open(root, new Region(null, mapped, 0, (int) size));
+            }
+            ZipArchive archive = open(root, new Region(fc, null, 0, (int) size));
+            if (archive == null)
+                fc.close();
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            fc.close();
+            throw e;
+        }
+    }
+
+    private static ZipArchive open(ClassPathRoot root, Region region) throws IOException {
+        if (!root.isNested()) {
+            ZipArchive archive = of(root, region, null, false, true);
+            if (archive != null)
+                archive.isFatJar = archive.hasFatJarManifest();
+            return archive;
+        }
+
+        ClassPathRoot outerRoot = new ClassPathRoot(root.getPath());
+        ZipArchive outer = of(outerRoot, region, null, false, true);
+        if (outer == null)
+            return null;
+        String nestedPath = root.getNestedPath();
+        if (nestedPath.endsWith("/"))
+            return new ZipArchive(root, region, outer.base, outer.cen, nestedPath.getBytes(StandardCharsets.UTF_8),
+                    false, true);
+
+        // the nested archive owns the channel instead of the outer one, which is not walked at all
+        ZipArchive nested = outer.openNested(nestedPath, root);
+        return new ZipArchive(nested.root, nested.region, nested.base, nested.cen, null, false, true);
+    }
+
+    /**
+     * Read the archive that is stored in the region
+     *
+     * @param root        root of the entries in the archive
+     * @param region      where the archive is stored
+     * @param entryPrefix only the entries under this directory are walked (nullable)
+     * @param isFatJar    whether the {@link FatJarLayout} is applied
+     * @param ownsChannel whether the file channel is closed by this archive
+     * @return archive, or null if it uses ZIP64
+     * @throws ZipException if it's not a valid zip archive
+     */
+    private static ZipArchive of(ClassPathRoot root, Region region, byte[] entryPrefix, boolean isFatJar,
+                                 boolean ownsChannel) throws IOException {
+        // the end record is at the end of the archive, followed by the comment
+        int tailStart = Math.max(0, region.length - EOCD_SIZE - MAX_COMMENT_LENGTH);
+        ByteBuffer tail = region.read(tailStart, region.length - tailStart).order(ByteOrder.LITTLE_ENDIAN);
+        int eocd = findEndOfCentralDirectory(tail);
+        if (eocd < 0)
+            throw new ZipException("End of central directory not found in " + root);
+
+        int totalEntries = u2(tail, eocd + 10);
+        long cenSize = u4(tail, eocd + 12);
+        long cenOffset = u4(tail, eocd + 16);
+        if (totalEntries == 0xFFFF || cenSize == ZIP64_MAGIC || cenOffset == ZIP64_MAGIC)
+            return null;
+        if (eocd >= ZIP64_EOCD_LOCATOR_SIZE && tail.getInt(eocd - ZIP64_EOCD_LOCATOR_SIZE) == ZIP64_EOCD_LOCATOR_SIG)
+            return null;
+
+        // the central directory is right before the end record, so whatever is prepended can be found out
+        long base = tailStart + eocd - cenSize - cenOffset;
+        if (base < 0)
+            throw new ZipException("Invalid central directory in " + root);
+        ByteBuffer cen = region.read((int) (base + cenOffset), (int) cenSize).order(ByteOrder.LITTLE_ENDIAN);
+        return new ZipArchive(root, region, (int) base, cen, entryPrefix, isFatJar, ownsChannel);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer le) {
+        for (int i = le.limit() - EOCD_SIZE; i >= 0; i--) {
+            if (le.getInt(i) == EOCD_SIG && i + EOCD_SIZE + u2(le, i + 20) == le.limit())
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Walk through the entries in the central directory
+     *
+     * @param rules       rules of the entries' names, an entry must match at least one of them (nullable, if all the
+     *                    entries are accepted)
+     * @param entryFilter filter of entries' names, it's only tested with the names that match the rules
+     * @param visitor     visitor of the entries accepted
+     * @return nested archives found, they are not walked yet
+     */
+    List<ZipArchive> walk(Collection<EntryNameRule> rules, Predicate<String> entryFilter,
+                          ClassPathEntryVisitor visitor) throws IOException {
+        List<ZipArchive> nested = new ArrayList<>();
+        final ByteBuffer buf = this.cen;
+        try {
+            int pos = 0;
+            while (pos < buf.limit()) {
+                if (buf.getInt(pos) != CEN_SIG)
+                    throw new ZipException("Invalid central directory header in " + root + " at " + pos);
+                int flags = u2(buf, pos + 8);
+                int method = u2(buf, pos + 10);
+                long compressedSize = u4(buf, pos + 20);
+                long size = u4(buf, pos + 24);
+                int nameLength = u2(buf, pos + 28);
+                int extraLength = u2(buf, pos + 30);
+                int commentLength = u2(buf, pos + 32);
+                long locOffset = u4(buf, pos + 42);
+                int nameOffset = pos + CEN_SIZE;
+                pos = nameOffset + nameLength + extraLength + commentLength;
+
+                // directory
+                if (nameLength == 0 || buf.get(nameOffset + nameLength - 1) == '/')
+                    continue;
+
+                // the name relative to the root
+                int relOffset = nameOffset;
+                int relLength = nameLength;
+                boolean isNestedArchive = false;
+                if (entryPrefix != null) {
+                    if (!startsWith(nameOffset, nameLength, entryPrefix))
+                        continue;
+                    relOffset += entryPrefix.length;
+                    relLength -= entryPrefix.length;
+                } else if (isFatJar) {
+                    byte[] classesDir = startsWithAny(nameOffset, nameLength, CLASSES_DIRECTORIES);
+                    if (classesDir != null) {
+                        relOffset += classesDir.length;
+                        relLength -= classesDir.length;
+                    } else {
+                        isNestedArchive = endsWith(nameOffset, nameLength, ARCHIVE_SUFFIX)
+                                && FatJarLayout.isNestedArchive(decode(nameOffset, nameLength));
+                    }
+                }
+
+                if (!isNestedArchive && rules != null && !matchesAny(rules, relOffset, relLength))
+                    continue;
+                if ((flags & FLAG_ENCRYPTED) != 0 || (method != METHOD_STORED && method != METHOD_DEFLATED))
+                    continue;
+                if (compressedSize == ZIP64_MAGIC || size == ZIP64_MAGIC || locOffset == ZIP64_MAGIC)
+                    throw new ZipException("ZIP64 entry is not supported in " + root);
+                if (size > Integer.MAX_VALUE)
+                    throw new ZipException("Entry is too large in " + root);
+
+                if (isNestedArchive) {
+                    String name = decode(nameOffset, nameLength);
+                    ClassPathRoot nestedRoot = new ClassPathRoot(root.getPath(), name);
+                    try {
+                        nested.add(openNested(new ZipArchiveEntry(name, method, (int) locOffset,
+                                (int) compressedSize, (int) size), nestedRoot));
+                    } catch (IOException e) {
+                        // e.g., a corrupted nested archive, the others are still walked
+                        LogUtil.info(logger, "Skipped archive %s that can't be read, %s", nestedRoot, e.getMessage());
+                    }
+                    continue;
+                }
+
+                String name = decode(relOffset, relLength);
+                if (!entryFilter.test(name))
+                    continue;
+                visitor.visit(root, new ZipArchiveEntry(name, method, (int) locOffset, (int) compressedSize, (int) size));
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+                inflater = null;
+            }
+        }
+        return nested;
+    }
+
+    /**
+     * Close the file channel if it's opened by this archive, the nested archives can't be read afterwards, it does
+     * nothing if the archive is mapped
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownsChannel && region.channel != null)
+            region.channel.close();
+    }
+
+    /**
+     * Open nested archive by name
+     */
+    private ZipArchive openNested(String name, ClassPathRoot nestedRoot) throws IOException {
+        ZipArchiveEntry e = findEntry(name);
+        if (e == null)
+            throw new ZipException("Nested archive " + name + " not found in " + root);
+        return openNested(e, nestedRoot);
+    }
+
+    /**
+     * Check if the manifest of the archive declares a fat jar launcher, see {@link FatJarLayout#isFatJar(Manifest)}
+     *
+     * @return false if there is no manifest, or it can't be read
+     */
+    private boolean hasFatJarManifest() {
+        try {
+            ZipArchiveEntry e = findEntry(FatJarLayout.MANIFEST_NAME);
+            if (e == null || (e.method != METHOD_STORED && e.method != METHOD_DEFLATED))
+                return false;
+            ByteBuffer content = read(e);
+            byte[] b = new byte[content.remaining()];
+            content.get(b);
+            return FatJarLayout.isFatJar(new Manifest(new ByteArrayInputStream(b)));
+        } catch (IOException e) {
+            // the archive is walked as an ordinary one, it fails later if it's corrupted
+            return false;
+        }
+    }
+
+    /**
+     * Find entry by its full name in the central directory
+     *
+     * @return entry, or null if it's not found
+     */
+    private ZipArchiveEntry findEntry(String name) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buf = this.cen;
+        int pos = 0;
+        while (pos < buf.limit()) {
+            if (buf.getInt(pos) != CEN_SIG)
+                throw new ZipException("Invalid central directory header in " + root + " at " + pos);
+            int nameLength = u2(buf, pos + 28);
+            int nameOffset = pos + CEN_SIZE;
+            if (nameLength == nameBytes.length && startsWith(nameOffset, nameLength, nameBytes)) {
+                return new ZipArchiveEntry(name, u2(buf, pos + 10), (int) u4(buf, pos + 42),
+                        (int) u4(buf, pos + 20), (int) u4(buf, pos + 24));
+            }
+            pos = nameOffset + nameLength + u2(buf, pos + 30) + u2(buf, pos + 32);
+        }
+        return null;
+    }
+
+    private ZipArchive openNested(ZipArchiveEntry e, ClassPathRoot nestedRoot) throws IOException {
+        // a stored archive is read in place, a deflated one is inflated in memory
+        int dataOffset = dataOffset(e);
+        Region nestedRegion = e.method == METHOD_STORED ?
+                region.subRegion(dataOffset, e.compressedSize) : Region.of(inflate(e, dataOffset));
+        ZipArchive nested = of(nestedRoot, nestedRegion, null, false, false);
+        if (nested == null)
+            throw new ZipException("ZIP64 nested archive is not supported: " + nestedRoot);
+        return nested;
+    }
+
+    /**
+     * Get root of the entries in this archive
+     */
+    ClassPathRoot getRoot() {
+        return root;
+    }
+
+    private boolean matchesAny(Collection<EntryNameRule> rules, int nameOffset, int nameLength) {
+        for (EntryNameRule r : rules) {
+            if (r.matches(cen, nameOffset, nameLength))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean startsWith(int offset, int length, byte[] prefix) {
+        if (length < prefix.length)
+            return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (cen.get(offset + i) != prefix[i])
+                return false;
+        }
+        return true;
+    }
+
+    private byte[] startsWithAny(int offset, int length, byte[][] prefixes) {
+        for (byte[] p : prefixes) {
+            if (startsWith(offset, length, p))
+                return p;
+        }
+        return null;
+    }
+
+    private boolean endsWith(int offset, int length, byte[] suffix) {
+        return length >= suffix.length && startsWith(offset + length - suffix.length, suffix.length, suffix);
+    }
+
+    private String decode(int offset, int length) {
+        byte[] b = new byte[length];
+        ByteBuffer dup = cen.duplicate();
+        dup.position(offset);
+        dup.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get offset of the entry's data in the region, the local file header is checked along the way
+     */
+    private int dataOffset(ZipArchiveEntry e) throws IOException {
+        int loc = base + e.locOffset;
+        if (loc < 0 || loc + LOC_SIZE > region.length)
+            throw new ZipException("Invalid local file header of " + e.name + " in " + root);
+        ByteBuffer header = region.read(loc, LOC_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != LOC_SIG)
+            throw new ZipException("Invalid local file header of " + e.name + " in " + root);
+        int dataOffset = loc + LOC_SIZE + u2(header, 26) + u2(header, 28);
+        if (dataOffset + e.compressedSize > region.length)
+            throw new ZipException("Truncated entry " + e.name + " in " + root);
+        return dataOffset;
+    }
+
+    /**
+     * Read the content of the entry
+     */
+    private ByteBuffer read(ZipArchiveEntry e) throws IOException {
+        int dataOffset = dataOffset(e);
+        if (e.method == METHOD_STORED)
+            return region.read(dataOffset, e.compressedSize); // always big-endian, as class files are
+        return ByteBuffer.wrap(inflate(e, dataOffset));
+    }
+
+    private byte[] inflate(ZipArchiveEntry e, int dataOffset) throws IOException {
+        ByteBuffer data = region.read(dataOffset, e.compressedSize);
+        byte[] in;
+        int inOffset;
+        if (data.hasArray()) {
+            in = data.array();
+            inOffset = data.arrayOffset() + data.position();
+        } else {
+            in = new byte[e.compressedSize];
+            data.get(in);
+            inOffset = 0;
+        }
+        byte[] out = new byte[e.size];
+        if (inflater == null)
+            inflater = new Inflater(true);
+        inflater.reset();
+        inflater.setInput(in, inOffset, e.compressedSize);
+        try {
+            int n = 0;
+            while (n < out.length && !inflater.finished()) {
+                int r = inflater.inflate(out, n, out.length - n);
+                if (r == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                n += r;
+            }
+            if (n != out.length)
+                throw new ZipException("Invalid size of " + e.name + " in " + root);
+        } catch (DataFormatException ex) {
+            throw new ZipException("Unable to inflate " + e.name + " in " + root + ", " + ex.getMessage());
+        }
+        return out;
+    }
+
+    private static int u2(ByteBuffer le, int index) {
+        return le.getShort(index) & 0xFFFF;
+    }
+
+    private static long u4(ByteBuffer le, int index) {
+        return le.getInt(index) & 0xFFFFFFFFL;
+    }
+
+    private static byte[][] toBytes(String[] strings) {
+        byte[][] bytes = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++)
+            bytes[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        return bytes;
+    }
+
+    /**
+     * Region where an archive is stored, it's either a part of a file, or a buffer in memory (e.g., a mapped file, or an
+     * inflated nested archive)
+     */
+    private static final class Region {
+
+        /** file channel (nullable, if it's in memory), positional reads are thread-safe */
+        private final FileChannel channel;
+        /** buffer in memory or the mapping of the file (nullable, if it's read from the file channel) */
+        private final ByteBuffer memory;
+        /** offset of the region in the file or the buffer */
+        private final long start;
+        private final int length;
+
+        private Region(FileChannel channel, ByteBuffer memory, long start, int length) {
+            this.channel = channel;
+            this.memory = memory;
+            this.start = start;
+            this.length = length;
+        }
+
+        static Region of(byte[] bytes) {
+            return new Region(null, ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+
+        Region subRegion(int offset, int length) {
+            return new Region(channel, memory, start + offset, length);
+        }
+
+        /**
+         * Read bytes of the region, the buffer returned is big-endian, from position 0 to the limit
+         */
+        ByteBuffer read(int offset, int length) throws IOException {
+            if (memory != null) {
+                ByteBuffer dup = memory.duplicate();
+                dup.limit((int) (start + offset + length));
+                dup.position((int) (start + offset));
+                return dup.slice();
+            }
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            long position = start + offset;
+            while (buf.hasRemaining()) {
+                int n = channel.read(buf, position + buf.position());
+                if (n < 0)
+                    throw new ZipException("Unexpected end of archive");
+            }
+            buf.flip();
+            return buf;
+        }
+    }
+
+    private final class ZipArchiveEntry implements ClassPathEntry {
+
+        private final String name;
+        private final int method;
+        private final int locOffset;
+        private final int compressedSize;
+        private final int size;
+
+        ZipArchiveEntry(String name, int method, int locOffset, int compressedSize, int size) {
+            this.name = name;
+            this.method = method;
+            this.locOffset = locOffset;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public ByteBuffer read() throws IOException {
+            return ZipArchive.this.read(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.curtisnewbie.module.ioc.util;
+
+import java.util.*;
+
+/**
+ * Util class for the hierarchy of classes
+ * <p>
+ * The supertypes of each class are memoized in a {@link ClassValue}, they are computed from the supertypes of its
+ * direct superclass and interfaces, so the shared ancestors are only walked once per JVM, and the results are reused
+ * by all contexts. The entries are dropped together with the classes, they don't prevent the classes from being
+ * unloaded.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public final class ClassHierarchyUtil {
+
+    private static final ClassValue<Set<Class<?>>> SUPERTYPES = new ClassValue<Set<Class<?>>>() {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> supertypes = new LinkedHashSet<>();
+            Class<?> superClass = type.getSuperclass();
+            if (superClass != null) {
+                supertypes.add(superClass);
+                supertypes.addAll(get(superClass));
+            }
+            for (Class<?> i : type.getInterfaces()) {
+                supertypes.add(i);
+                supertypes.addAll(get(i));
+            }
+            return supertypes.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(supertypes);
+        }
+    };
+
+    private ClassHierarchyUtil() {
+    }
+
+    /**
+     * Get the superclasses and all the interfaces that the class implements/extends, directly or indirectly
+     * <p>
+     * The class itself is not included, the interfaces don't have {@code Object} as their superclass
+     * </p>
+     *
+     * @param clazz class
+     * @return unmodifiable set of supertypes
+     */
+    public static Set<Class<?>> getSupertypes(Class<?> clazz) {
+        Objects.requireNonNull(clazz);
+        return SUPERTYPES.get(clazz);
+    }
+}
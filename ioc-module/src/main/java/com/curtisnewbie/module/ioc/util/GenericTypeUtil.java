@@ -0,0 +1,180 @@
+package com.curtisnewbie.module.ioc.util;
+
+import java.lang.reflect.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Util class for resolving generic types
+ * <p>
+ * Both the type arguments resolved for each (class, generic type) pair and the results of {@link #isAssignable(Type,
+ * Class)} for each (class, type) pair are cached, the caches are attached to the classes by {@link ClassValue}, so
+ * they are dropped together with the classes.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public final class GenericTypeUtil {
+
+    /** Marker of the classes that are not subtypes of the generic type, it's compared by reference */
+    private static final Type[] NOT_SUBTYPE = new Type[0];
+
+    /** class -> (generic type -> type arguments of the generic type resolved for the class) */
+    private static final ClassValue<Map<Class<?>, Type[]>> TYPE_ARGUMENTS = new ClassValue<Map<Class<?>, Type[]>>() {
+        @Override
+        protected Map<Class<?>, Type[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /** class -> (required type -> whether the class is assignable to it) */
+    private static final ClassValue<Map<Type, Boolean>> ASSIGNABLE = new ClassValue<Map<Type, Boolean>>() {
+        @Override
+        protected Map<Type, Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private GenericTypeUtil() {
+    }
+
+    /**
+     * Check whether the instances of the class can be assigned to the required type, including the type arguments
+     * <p>
+     * E.g., {@code class UserRepository implements Repository<User>} is assignable to {@code Repository<User>} and
+     * {@code Repository<? extends Object>}, but not {@code Repository<Order>}. The type arguments that can't be
+     * resolved, e.g., the ones declared as type variables by a generic bean class, never match, unless the required
+     * type argument is an unbounded wildcard or a type variable.
+     * </p>
+     *
+     * @param requiredType required type, e.g., the generic type of a field
+     * @param clazz        class of the bean
+     */
+    public static boolean isAssignable(Type requiredType, Class<?> clazz) {
+        Objects.requireNonNull(requiredType);
+        Objects.requireNonNull(clazz);
+        if (requiredType instanceof Class)
+            return ((Class<?>) requiredType).isAssignableFrom(clazz);
+        return ASSIGNABLE.get(clazz).computeIfAbsent(requiredType, t -> doIsAssignable(t, clazz));
+    }
+
+    /**
+     * Resolve the type arguments of the generic type for the class
+     * <p>
+     * E.g., for {@code class UserRepository implements Repository<User>}, the type arguments of {@code Repository} are
+     * {@code [User]}. The type arguments that can't be resolved are returned as they are, e.g., the type variables
+     * declared by the class itself.
+     * </p>
+     *
+     * @param clazz       class
+     * @param genericType generic type, it's either the class itself or one of its supertypes
+     * @return type arguments, or null if the class is not a subtype of the generic type
+     */
+    public static Type[] resolveTypeArguments(Class<?> clazz, Class<?> genericType) {
+        Objects.requireNonNull(clazz);
+        Objects.requireNonNull(genericType);
+        Type[] args = TYPE_ARGUMENTS.get(clazz).computeIfAbsent(genericType, g -> doResolveTypeArguments(clazz, g));
+        // copied as Type[], the cached one may be a TypeVariable[]
+        return args == NOT_SUBTYPE ? null : Arrays.copyOf(args, args.length, Type[].class);
+    }
+
+    private static boolean doIsAssignable(Type requiredType, Class<?> clazz) {
+        Class<?> raw = rawClassOf(requiredType);
+        if (raw == null || !raw.isAssignableFrom(clazz))
+            return false;
+        if (!(requiredType instanceof ParameterizedType))
+            return true;
+
+        Type[] requiredArgs = ((ParameterizedType) requiredType).getActualTypeArguments();
+        Type[] args = resolveTypeArguments(clazz, raw);
+        if (args == null || args.length != requiredArgs.length)
+            return false;
+        for (int i = 0; i < args.length; i++) {
+            if (!matches(requiredArgs[i], args[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /** Check whether the type argument resolved matches the one required */
+    private static boolean matches(Type requiredArg, Type arg) {
+        // can't be resolved for the field either, e.g., the field is declared in a generic class
+        if (requiredArg instanceof TypeVariable)
+            return true;
+        if (requiredArg instanceof WildcardType) {
+            WildcardType wt = (WildcardType) requiredArg;
+            Class<?> rawArg = rawClassOf(arg);
+            for (Type upper : wt.getUpperBounds()) {
+                if (upper == Object.class)
+                    continue;
+                Class<?> rawUpper = rawClassOf(upper);
+                if (rawArg == null || rawUpper == null || !rawUpper.isAssignableFrom(rawArg))
+                    return false;
+            }
+            for (Type lower : wt.getLowerBounds()) {
+                Class<?> rawLower = rawClassOf(lower);
+                if (rawArg == null || rawLower == null || !rawArg.isAssignableFrom(rawLower))
+                    return false;
+            }
+            return true;
+        }
+        return requiredArg.equals(arg);
+    }
+
+    private static Type[] doResolveTypeArguments(Class<?> clazz, Class<?> genericType) {
+        if (clazz == genericType)
+            return clazz.getTypeParameters();
+        if (!genericType.isAssignableFrom(clazz))
+            return NOT_SUBTYPE;
+
+        Type superClass = clazz.getGenericSuperclass();
+        if (superClass != null) {
+            Type[] args = resolveFromSupertype(superClass, genericType);
+            if (args != null)
+                return args;
+        }
+        for (Type i : clazz.getGenericInterfaces()) {
+            Type[] args = resolveFromSupertype(i, genericType);
+            if (args != null)
+                return args;
+        }
+        return NOT_SUBTYPE;
+    }
+
+    /**
+     * Resolve the type arguments of the generic type through a direct supertype, the type arguments are resolved for
+     * the supertype first, then the type variables declared by the supertype are replaced with the actual type
+     * arguments of the direct supertype
+     */
+    private static Type[] resolveFromSupertype(Type supertype, Class<?> genericType) {
+        Class<?> raw = rawClassOf(supertype);
+        if (raw == null || !genericType.isAssignableFrom(raw))
+            return null;
+        Type[] args = resolveTypeArguments(raw, genericType);
+        if (args == null || !(supertype instanceof ParameterizedType))
+            return args;
+
+        TypeVariable<?>[] params = raw.getTypeParameters();
+        Type[] actualArgs = ((ParameterizedType) supertype).getActualTypeArguments();
+        for (int i = 0; i < args.length; i++) {
+            for (int j = 0; j < params.length; j++) {
+                if (params[j].equals(args[i])) {
+                    args[i] = actualArgs[j];
+                    break;
+                }
+            }
+        }
+        return args;
+    }
+
+    /** Get the raw class of the type, or null if it's not a class or parameterized type */
+    private static Class<?> rawClassOf(Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.curtisnewbie.module.ioc.util;
+
+import com.curtisnewbie.module.ioc.annotations.BasePackages;
+
+import java.util.*;
+
+/**
+ * Util class for resolving and matching base packages
+ *
+ * @author yongjie.zhuang
+ * @see BasePackages
+ */
+public final class PackageScopeUtil {
+
+    /** name of the root package, i.e., the whole classpath */
+    public static final String ROOT_PACKAGE = "";
+
+    private PackageScopeUtil() {
+    }
+
+    /**
+     * Resolve base packages for the main class
+     * <p>
+     * If the main class is annotated with {@link BasePackages}, the packages declared are used, else the main class'
+     * package is used. Packages that are nested in another base package are removed.
+     * </p>
+     *
+     * @param mainClazz main class
+     * @return base packages
+     */
+    public static Set<String> resolveBasePackages(Class<?> mainClazz) {
+        Objects.requireNonNull(mainClazz);
+        BasePackages bp = mainClazz.getDeclaredAnnotation(BasePackages.class);
+        if (bp != null)
+            return normalize(Arrays.asList(bp.value()));
+        return Collections.singleton(getPackageName(mainClazz));
+    }
+
+    /**
+     * Remove the duplicate or nested packages, if the root package is present, only the root package is returned
+     */
+    public static Set<String> normalize(Collection<String> packages) {
+        List<String> sorted = new ArrayList<>();
+        for (String p : packages) {
+            Objects.requireNonNull(p);
+            p = p.trim();
+            if (p.isEmpty())
+                return Collections.singleton(ROOT_PACKAGE);
+            sorted.add(p);
+        }
+        if (sorted.isEmpty())
+            return Collections.singleton(ROOT_PACKAGE);
+
+        // the parent package always goes before its sub-packages
+        Collections.sort(sorted);
+        Set<String> normalized = new LinkedHashSet<>();
+        String last = null;
+        for (String p : sorted) {
+            if (last != null && isInPackage(p, last))
+                continue;
+            normalized.add(p);
+            last = p;
+        }
+        return normalized;
+    }
+
+    /**
+     * Check if the class (or package) of the given name is in one of the packages (including sub-packages)
+     *
+     * @param name     class' name or package' name, e.g., {@code com.curtisnewbie.App}
+     * @param packages packages
+     */
+    public static boolean isInPackages(String name, Collection<String> packages) {
+        for (String p : packages) {
+            if (isInPackage(name, p))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if the class (or package) of the given name is in the package (including sub-packages)
+     *
+     * @param name        class' name or package' name, e.g., {@code com.curtisnewbie.App}
+     * @param packageName package
+     */
+    public static boolean isInPackage(String name, String packageName) {
+        if (packageName.isEmpty())
+            return true;
+        return name.startsWith(packageName)
+                && (name.length() == packageName.length() || name.charAt(packageName.length()) == '.');
+    }
+
+    private static String getPackageName(Class<?> clazz) {
+        String name = clazz.getName();
+        int i = name.lastIndexOf('.');
+        return i < 0 ? ROOT_PACKAGE : name.substring(0, i);
+    }
+}
@@ -6,19 +6,29 @@ import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
 
 import java.lang.annotation.Annotation;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 /**
  * Class scanning util using {@link Reflections}
+ * <p>
+ * For the methods that accept a {@code parallelism}, the classpath entries (URLs) are split across a {@link
+ * ForkJoinPool} of the given parallelism, each directory or jar is scanned concurrently as a separate task, and the
+ * results are merged into the same {@code Reflections} store.
+ * </p>
  *
  * @author yongjie.zhuang
  */
 public final class ReflectionsScanUtil {
 
+    /** Default parallelism for scanning, which is the number of available processors */
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
     private ReflectionsScanUtil() {
     }
 
@@ -37,6 +47,23 @@ public final class ReflectionsScanUtil {
         return scanClassWithAnnotation(annotationClz, r);
     }
 
+    /**
+     * Scan classes with the given annotation
+     *
+     * @param annotationClz annotation
+     * @param packages      base packages to scan
+     * @param classLoader   classloader to use
+     * @param parallelism   number of threads used for scanning
+     * @param <T>           type of annotation
+     */
+    public static <T extends Annotation> Set<Class<?>> scanClassWithAnnotation(Class<T> annotationClz,
+                                                                               Collection<String> packages,
+                                                                               ClassLoader classLoader,
+                                                                               int parallelism) {
+        Reflections r = getReflectionsForAnnotationScanning(packages, classLoader, parallelism);
+        return scanClassWithAnnotation(annotationClz, r);
+    }
+
     /**
      * Scan classes with the given annotation
      *
@@ -88,9 +115,24 @@ public final class ReflectionsScanUtil {
     public static Set<Class<?>> scanSubClassesOf(List<Class<?>> parentClz,
                                                  String packageUrl,
                                                  ClassLoader classLoader) {
-        Reflections r = getReflectionsForSubTypeScanning(packageUrl, classLoader);
+        return scanSubClassesOf(parentClz, Collections.singleton(packageUrl), classLoader, 1);
+    }
+
+    /**
+     * Scan subclasses of the given parent classes
+     *
+     * @param parentClz   parent class
+     * @param packages    base packages to scan
+     * @param classLoader classloader to use
+     * @param parallelism number of threads used for scanning
+     */
+    public static Set<Class<?>> scanSubClassesOf(List<Class<?>> parentClz,
+                                                 Collection<String> packages,
+                                                 ClassLoader classLoader,
+                                                 int parallelism) {
+        Reflections r = getReflectionsForSubTypeScanning(packages, classLoader, parallelism);
         Set<Class<?>> clzSet = new HashSet<>();
-        for (Class fc : parentClz) {
+        for (Class<?> fc : parentClz) {
             clzSet.addAll(scanSubClassOf(fc, r));
         }
         return clzSet;
@@ -105,9 +147,45 @@ public final class ReflectionsScanUtil {
      */
     public static Reflections getReflectionsForAnnotationScanning(String packageUrl,
                                                                   ClassLoader classLoader) {
-        Reflections r = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forPackage(packageUrl))
-                .addClassLoader(classLoader)
+        return getReflectionsForAnnotationScanning(Collections.singleton(packageUrl), classLoader, 1);
+    }
+
+    /**
+     * Get {@code Reflections} for annotation scanning, which can be reused
+     * <p>
+     * Only the classpath entries that contain the base packages are scanned, and only the classes in these packages are
+     * parsed
+     * </p>
+     *
+     * @param packages    base packages to scan
+     * @param classLoader classloader to use
+     * @param parallelism number of threads used for scanning
+     * @return reflections object
+     */
+    public static Reflections getReflectionsForAnnotationScanning(Collection<String> packages,
+                                                                  ClassLoader classLoader,
+                                                                  int parallelism) {
+        return getReflectionsForAnnotationScanning(packages, classLoader, parallelism, null);
+    }
+
+    /**
+     * Get {@code Reflections} for annotation scanning, which can be reused
+     * <p>
+     * Only the classpath entries that contain the base packages are scanned, and only the classes in these packages
+     * that are accepted by the filter are parsed
+     * </p>
+     *
+     * @param packages    base packages to scan
+     * @param classLoader classloader to use
+     * @param parallelism number of threads used for scanning
+     * @param inputFilter filter of the classes' paths, e.g., {@code com/curtisnewbie/App.class} (nullable)
+     * @return reflections object
+     */
+    public static Reflections getReflectionsForAnnotationScanning(Collection<String> packages,
+                                                                  ClassLoader classLoader,
+                                                                  int parallelism,
+                                                                  Predicate<String> inputFilter) {
+        Reflections r = new Reflections(classScanningConfiguration(packages, classLoader, parallelism, inputFilter)
                 .addScanners(new SubTypesScanner(), new TypeAnnotationsScanner()));
         return r;
     }
@@ -121,9 +199,45 @@ public final class ReflectionsScanUtil {
      */
     public static Reflections getReflectionsForSubTypeScanning(String packageUrl,
                                                                ClassLoader classLoader) {
-        Reflections r = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forPackage(packageUrl))
-                .addClassLoader(classLoader)
+        return getReflectionsForSubTypeScanning(Collections.singleton(packageUrl), classLoader, 1);
+    }
+
+    /**
+     * Get {@code Reflections} for subtype scanning, which can be reused
+     * <p>
+     * Only the classpath entries that contain the base packages are scanned, and only the classes in these packages are
+     * parsed
+     * </p>
+     *
+     * @param packages    base packages to scan
+     * @param classLoader classloader to use
+     * @param parallelism number of threads used for scanning
+     * @return reflections object
+     */
+    public static Reflections getReflectionsForSubTypeScanning(Collection<String> packages,
+                                                               ClassLoader classLoader,
+                                                               int parallelism) {
+        return getReflectionsForSubTypeScanning(packages, classLoader, parallelism, null);
+    }
+
+    /**
+     * Get {@code Reflections} for subtype scanning, which can be reused
+     * <p>
+     * Only the classpath entries that contain the base packages are scanned, and only the classes in these packages
+     * that are accepted by the filter are parsed
+     * </p>
+     *
+     * @param packages    base packages to scan
+     * @param classLoader classloader to use
+     * @param parallelism number of threads used for scanning
+     * @param inputFilter filter of the classes' paths, e.g., {@code com/curtisnewbie/App.class} (nullable)
+     * @return reflections object
+     */
+    public static Reflections getReflectionsForSubTypeScanning(Collection<String> packages,
+                                                               ClassLoader classLoader,
+                                                               int parallelism,
+                                                               Predicate<String> inputFilter) {
+        Reflections r = new Reflections(classScanningConfiguration(packages, classLoader, parallelism, inputFilter)
                 .addScanners(new SubTypesScanner()));
         return r;
     }
@@ -137,10 +251,73 @@ public final class ReflectionsScanUtil {
      */
     public static Reflections getReflectionsForResourcesScanning(String packageUrl,
                                                                  ClassLoader classLoader) {
-        Reflections r = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forPackage(packageUrl))
-                .addClassLoader(classLoader)
+        return getReflectionsForResourcesScanning(Collections.singleton(packageUrl), classLoader, 1);
+    }
+
+    /**
+     * Get {@code Reflections} for non-class resource scanning, which can be reused
+     * <p>
+     * Only the classpath entries that contain the base packages are scanned, but all the resources in these entries
+     * are included (e.g., the resources at the root of a jar)
+     * </p>
+     *
+     * @param packages    base packages to scan
+     * @param classLoader classloader to use
+     * @param parallelism number of threads used for scanning
+     * @return reflections object
+     */
+    public static Reflections getReflectionsForResourcesScanning(Collection<String> packages,
+                                                                 ClassLoader classLoader,
+                                                                 int parallelism) {
+        Reflections r = new Reflections(configuration(packages, classLoader, parallelism)
                 .addScanners(new ResourcesScanner()));
         return r;
     }
+
+    /**
+     * Get the classpath entries that contain any of the given packages
+     * <p>
+     * The entries are resolved through {@link ClassLoader#getResources(String)}, so the entries that don't contain the
+     * packages are pruned before any jar is opened for scanning.
+     * </p>
+     *
+     * @param packages    base packages
+     * @param classLoader classloader to use
+     */
+    public static Set<URL> forPackages(Collection<String> packages, ClassLoader classLoader) {
+        Set<URL> urls = new HashSet<>();
+        for (String p : packages) {
+            urls.addAll(ClasspathHelper.forPackage(p, classLoader));
+        }
+        return urls;
+    }
+
+    private static ConfigurationBuilder configuration(Collection<String> packages,
+                                                     ClassLoader classLoader,
+                                                     int parallelism) {
+        ConfigurationBuilder cb = new ConfigurationBuilder()
+                .setUrls(forPackages(packages, classLoader))
+                .addClassLoader(classLoader);
+        if (parallelism > 1) {
+            // each URL is submitted as a separate task, the pool is shutdown by Reflections once the scanning is finished
+            cb.setExecutorService(new ForkJoinPool(parallelism));
+        }
+        return cb;
+    }
+
+    private static ConfigurationBuilder classScanningConfiguration(Collection<String> packages,
+                                                                   ClassLoader classLoader,
+                                                                   int parallelism,
+                                                                   Predicate<String> inputFilter) {
+        ConfigurationBuilder cb = configuration(packages, classLoader, parallelism);
+        // the whole classpath, nothing to filter
+        if (packages.contains(PackageScopeUtil.ROOT_PACKAGE))
+            return inputFilter == null ? cb : cb.filterInputsBy(inputFilter);
+        FilterBuilder fb = new FilterBuilder();
+        for (String p : packages) {
+            // trailing '.' such that 'com.foo' doesn't match 'com.foobar'
+            fb.includePackage(p + ".");
+        }
+        return cb.filterInputsBy(inputFilter == null ? fb : fb.and(inputFilter));
+    }
 }
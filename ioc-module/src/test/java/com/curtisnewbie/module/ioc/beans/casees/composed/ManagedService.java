@@ -0,0 +1,15 @@
+package com.curtisnewbie.module.ioc.beans.casees.composed;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+import java.lang.annotation.*;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@MBean
+public @interface ManagedService {
+}
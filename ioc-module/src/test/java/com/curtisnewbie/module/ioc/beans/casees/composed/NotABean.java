@@ -0,0 +1,8 @@
+package com.curtisnewbie.module.ioc.beans.casees.composed;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Deprecated
+public class NotABean {
+}
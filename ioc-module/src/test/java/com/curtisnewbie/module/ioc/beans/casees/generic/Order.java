@@ -0,0 +1,7 @@
+package com.curtisnewbie.module.ioc.beans.casees.generic;
+
+/**
+ * @author yongjie.zhuang
+ */
+public class Order {
+}
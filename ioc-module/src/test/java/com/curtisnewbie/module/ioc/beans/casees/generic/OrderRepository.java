@@ -0,0 +1,15 @@
+package com.curtisnewbie.module.ioc.beans.casees.generic;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class OrderRepository extends AbstractRepository<Order> {
+
+    @Override
+    public Order findOne() {
+        return new Order();
+    }
+}
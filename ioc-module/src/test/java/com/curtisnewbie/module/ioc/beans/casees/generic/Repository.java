@@ -0,0 +1,9 @@
+package com.curtisnewbie.module.ioc.beans.casees.generic;
+
+/**
+ * @author yongjie.zhuang
+ */
+public interface Repository<T> {
+
+    T findOne();
+}
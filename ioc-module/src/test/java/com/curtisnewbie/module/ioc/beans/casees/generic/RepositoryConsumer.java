@@ -0,0 +1,33 @@
+package com.curtisnewbie.module.ioc.beans.casees.generic;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class RepositoryConsumer {
+
+    @Dependency
+    private Repository<User> userRepository;
+
+    @Dependency
+    private Repository<? extends Order> orderRepository;
+
+    public Repository<User> getUserRepository() {
+        return userRepository;
+    }
+
+    public void setUserRepository(Repository<User> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Repository<? extends Order> getOrderRepository() {
+        return orderRepository;
+    }
+
+    public void setOrderRepository(Repository<? extends Order> orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+}
@@ -0,0 +1,15 @@
+package com.curtisnewbie.module.ioc.beans.casees.generic;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class UserRepository implements Repository<User> {
+
+    @Override
+    public User findOne() {
+        return new User();
+    }
+}
@@ -0,0 +1,22 @@
+package com.curtisnewbie.module.ioc.beans.casees.invalid;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class BeanWithLazyClassDependency {
+
+    @Dependency(lazy = true)
+    private EmptyBean emptyBean;
+
+    public EmptyBean getEmptyBean() {
+        return emptyBean;
+    }
+
+    public void setEmptyBean(EmptyBean emptyBean) {
+        this.emptyBean = emptyBean;
+    }
+}
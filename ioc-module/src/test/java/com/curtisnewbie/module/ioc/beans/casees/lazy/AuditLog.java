@@ -0,0 +1,9 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+/**
+ * @author yongjie.zhuang
+ */
+public interface AuditLog {
+
+    String record(String event);
+}
@@ -0,0 +1,28 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Lazy;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Lazy
+@MBean
+public class AuditLogImpl implements AuditLog {
+
+    /** number of instances created */
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public AuditLogImpl() {
+        INSTANCES.incrementAndGet();
+    }
+
+    @Override
+    public String record(String event) {
+        if (event == null)
+            throw new IllegalArgumentException("event is null");
+        return "recorded: " + event;
+    }
+}
@@ -0,0 +1,22 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class AuditedService {
+
+    @Dependency(lazy = true)
+    private AuditLog auditLog;
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+}
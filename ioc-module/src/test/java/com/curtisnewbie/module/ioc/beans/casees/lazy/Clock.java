@@ -0,0 +1,11 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+/**
+ * Package-private interface, the lazy proxy must be able to invoke it
+ *
+ * @author yongjie.zhuang
+ */
+interface Clock {
+
+    long now();
+}
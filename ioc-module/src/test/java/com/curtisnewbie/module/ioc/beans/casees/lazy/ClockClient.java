@@ -0,0 +1,26 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class ClockClient {
+
+    @Dependency(lazy = true)
+    private Clock clock;
+
+    public long now() {
+        return clock.now();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
@@ -0,0 +1,33 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.Lazy;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Lazy
+@MBean
+public class LazyAudit {
+
+    /** number of instances created */
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    @Dependency
+    private LazyReport lazyReport;
+
+    public LazyAudit() {
+        INSTANCES.incrementAndGet();
+    }
+
+    public LazyReport getLazyReport() {
+        return lazyReport;
+    }
+
+    public void setLazyReport(LazyReport lazyReport) {
+        this.lazyReport = lazyReport;
+    }
+}
@@ -0,0 +1,24 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.Lazy;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Lazy
+@MBean
+public class LazyPing implements Ping {
+
+    @Dependency
+    private Pong pong;
+
+    public Pong getPong() {
+        return pong;
+    }
+
+    public void setPong(Pong pong) {
+        this.pong = pong;
+    }
+}
@@ -0,0 +1,24 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.Lazy;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Lazy
+@MBean
+public class LazyPong implements Pong {
+
+    @Dependency
+    private Ping ping;
+
+    public Ping getPing() {
+        return ping;
+    }
+
+    public void setPing(Ping ping) {
+        this.ping = ping;
+    }
+}
@@ -0,0 +1,34 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.Lazy;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.beans.casees.normal.AuthenticationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Lazy
+@MBean
+public class LazyReport {
+
+    /** number of instances created */
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    @Dependency
+    private AuthenticationManager authenticationManager;
+
+    public LazyReport() {
+        INSTANCES.incrementAndGet();
+    }
+
+    public AuthenticationManager getAuthenticationManager() {
+        return authenticationManager;
+    }
+
+    public void setAuthenticationManager(AuthenticationManager authenticationManager) {
+        this.authenticationManager = authenticationManager;
+    }
+}
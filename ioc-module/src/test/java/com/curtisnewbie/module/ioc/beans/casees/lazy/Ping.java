@@ -0,0 +1,7 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+/**
+ * @author yongjie.zhuang
+ */
+public interface Ping {
+}
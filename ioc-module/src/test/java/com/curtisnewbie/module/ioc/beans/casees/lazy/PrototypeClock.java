@@ -0,0 +1,33 @@
+package com.curtisnewbie.module.ioc.beans.casees.lazy;
+
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.annotations.Scope;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Scope(BeanScope.PROTOTYPE)
+@MBean
+public class PrototypeClock implements Clock {
+
+    /** number of instances created */
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public PrototypeClock() {
+        INSTANCES.incrementAndGet();
+        try {
+            // slow creation, such that the concurrent first calls overlap
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public long now() {
+        return 1L;
+    }
+}
@@ -0,0 +1,15 @@
+package com.curtisnewbie.module.ioc.beans.casees.primary;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class DefaultGreeter implements Greeter {
+
+    @Override
+    public String greet() {
+        return "hello";
+    }
+}
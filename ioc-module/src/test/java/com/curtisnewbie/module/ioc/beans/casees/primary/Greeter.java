@@ -0,0 +1,9 @@
+package com.curtisnewbie.module.ioc.beans.casees.primary;
+
+/**
+ * @author yongjie.zhuang
+ */
+public interface Greeter {
+
+    String greet();
+}
@@ -0,0 +1,22 @@
+package com.curtisnewbie.module.ioc.beans.casees.primary;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class GreeterClient {
+
+    @Dependency
+    private Greeter greeter;
+
+    public Greeter getGreeter() {
+        return greeter;
+    }
+
+    public void setGreeter(Greeter greeter) {
+        this.greeter = greeter;
+    }
+}
@@ -0,0 +1,17 @@
+package com.curtisnewbie.module.ioc.beans.casees.primary;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.annotations.Primary;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Primary
+@MBean
+public class PrimaryGreeter implements Greeter {
+
+    @Override
+    public String greet() {
+        return "hi";
+    }
+}
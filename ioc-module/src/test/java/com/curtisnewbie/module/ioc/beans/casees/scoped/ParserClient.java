@@ -0,0 +1,22 @@
+package com.curtisnewbie.module.ioc.beans.casees.scoped;
+
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+
+/**
+ * @author yongjie.zhuang
+ */
+@MBean
+public class ParserClient {
+
+    @Dependency
+    private PrototypeParser prototypeParser;
+
+    public PrototypeParser getPrototypeParser() {
+        return prototypeParser;
+    }
+
+    public void setPrototypeParser(PrototypeParser prototypeParser) {
+        this.prototypeParser = prototypeParser;
+    }
+}
@@ -0,0 +1,25 @@
+package com.curtisnewbie.module.ioc.beans.casees.scoped;
+
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.annotations.Scope;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Scope(value = BeanScope.POOLED, poolSize = 2)
+@MBean
+public class PooledFormatter {
+
+    @Dependency
+    private PrototypeParser prototypeParser;
+
+    public PrototypeParser getPrototypeParser() {
+        return prototypeParser;
+    }
+
+    public void setPrototypeParser(PrototypeParser prototypeParser) {
+        this.prototypeParser = prototypeParser;
+    }
+}
@@ -0,0 +1,26 @@
+package com.curtisnewbie.module.ioc.beans.casees.scoped;
+
+import com.curtisnewbie.module.ioc.annotations.BeanScope;
+import com.curtisnewbie.module.ioc.annotations.Dependency;
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.annotations.Scope;
+import com.curtisnewbie.module.ioc.beans.casees.normal.UserService;
+
+/**
+ * @author yongjie.zhuang
+ */
+@Scope(BeanScope.PROTOTYPE)
+@MBean
+public class PrototypeParser {
+
+    @Dependency
+    private UserService userService;
+
+    public UserService getUserService() {
+        return userService;
+    }
+
+    public void setUserService(UserService userService) {
+        this.userService = userService;
+    }
+}
@@ -1,19 +1,39 @@
 package com.curtisnewbie.module.ioc.context;
 
 import com.curtisnewbie.module.ioc.beans.casees.circular.*;
+import com.curtisnewbie.module.ioc.beans.casees.generic.*;
 import com.curtisnewbie.module.ioc.beans.casees.invalid.*;
+import com.curtisnewbie.module.ioc.beans.casees.lazy.*;
 import com.curtisnewbie.module.ioc.beans.casees.normal.*;
+import com.curtisnewbie.module.ioc.beans.casees.primary.*;
+import com.curtisnewbie.module.ioc.beans.casees.scoped.*;
+import com.curtisnewbie.module.ioc.exceptions.AmbiguousReferenceException;
+import com.curtisnewbie.module.ioc.exceptions.BeanNotFoundException;
+import com.curtisnewbie.module.ioc.exceptions.BeanRegistrySealedException;
 import com.curtisnewbie.module.ioc.exceptions.CircularDependencyException;
+import com.curtisnewbie.module.ioc.exceptions.ContextException;
 import com.curtisnewbie.module.ioc.exceptions.TypeNotSupportedForInjectionException;
 import com.curtisnewbie.module.ioc.exceptions.UnableToInjectDependencyException;
+import com.curtisnewbie.module.ioc.processing.BeanQualifiedNameGenerator;
+import com.curtisnewbie.module.ioc.processing.CachingBeanNameGenerator;
+import com.curtisnewbie.module.ioc.processing.ParentClassBeanAliasParser;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
@@ -368,6 +388,556 @@ public class BeanRegistryTest {
         logger.info("Test passed");
     }
 
+    @Test
+    public void shouldGetBeansOfTypeFromIndex() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                ServiceAggregator.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        BeanRegistry registry = applicationContext.getBeanRegistry();
+
+        // served by the index, it should be the same map for each call
+        Map<String, Object> beanMap = registry.getBeansOfType(KnowWhoIAm.class);
+        Assertions.assertSame(beanMap, registry.getBeansOfType(KnowWhoIAm.class), "Type index is not used, might have a bug");
+        Assertions.assertTrue(beanMap.containsValue(registry.getBeanByClass(AuthenticationManager.class)));
+        Assertions.assertTrue(beanMap.containsValue(registry.getBeanByClass(ServiceAggregator.class)));
+        Assertions.assertTrue(registry.getBeansOfType(EmptyBean.class).isEmpty(), "Bean not registered is found, might have a bug");
+
+        List<KnowWhoIAm> beanList = registry.getBeanListOfType(KnowWhoIAm.class);
+        Assertions.assertEquals(beanMap.size(), beanList.size());
+        Assertions.assertTrue(beanList.containsAll(beanMap.values()));
+
+        // the registry itself is registered with multiple names, but it should only appear once in the list
+        Assertions.assertEquals(1, registry.getBeanListOfType(BeanRegistry.class).size(),
+                "Bean with multiple names appears multiple times, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldSealRegistryAfterRefresh() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                ServiceAggregator.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        DefaultSingletonBeanRegistry registry = (DefaultSingletonBeanRegistry) applicationContext.getBeanRegistry();
+        Assertions.assertTrue(registry.isSealed(), "Registry is not sealed after refresh, might have a bug");
+
+        // lookups are served by the sealed table
+        UserServiceImpl userService = registry.getBeanByClass(UserServiceImpl.class);
+        Assertions.assertSame(userService, registry.getBeanByClass(UserService.class));
+        Assertions.assertSame(userService, registry.getBeanByName(UserService.class.getCanonicalName()));
+        Assertions.assertTrue(registry.containsBean(UserService.class));
+        Assertions.assertFalse(registry.containsBean(EmptyBean.class));
+        Assertions.assertThrows(BeanNotFoundException.class, () -> registry.getBeanByClass(EmptyBean.class));
+
+        // beans can no longer be registered
+        Assertions.assertThrows(BeanRegistrySealedException.class, () -> registry.registerSingletonBean(EmptyBean.class, new EmptyBean()),
+                "Bean registered after the registry is sealed, might have a bug");
+        Assertions.assertThrows(BeanRegistrySealedException.class,
+                () -> registry.registerBeanDefinition("emptyBean", new DefaultBeanDefinition(EmptyBean.class, "emptyBean")),
+                "Bean definition registered after the registry is sealed, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldCheckTransitiveDependencies() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                ServiceAggregator.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        InjectCapableBeanRegistry registry = (InjectCapableBeanRegistry) applicationContext.getBeanRegistry();
+
+        String aggregator = ServiceAggregator.class.getCanonicalName();
+        String authManager = AuthenticationManager.class.getCanonicalName();
+        String userService = UserService.class.getCanonicalName();
+        Assertions.assertTrue(registry.isDependent(aggregator, authManager), "Direct dependency not found, might have a bug");
+        Assertions.assertTrue(registry.isDependent(aggregator, userService), "Transitive dependency not found, might have a bug");
+        Assertions.assertFalse(registry.isDependent(userService, aggregator), "Dependency is reversed, might have a bug");
+        Assertions.assertFalse(registry.isDependent(aggregator, EmptyBean.class.getCanonicalName()));
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldResolveAliasConcurrently() throws InterruptedException {
+        DefaultBeanAliasRegistry aliasRegistry = new DefaultBeanAliasRegistry();
+        aliasRegistry.addAlias("userServiceImpl", "userService");
+        Assertions.assertEquals("userServiceImpl", aliasRegistry.getBeanName("userService"));
+        Assertions.assertEquals("unknown", aliasRegistry.getBeanName("unknown"), "Unknown name is not returned as it is, might have a bug");
+
+        // register the same alias for multiple beans concurrently, none of them should be lost
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final String beanName = "bean" + i;
+            threads[i] = new Thread(() -> aliasRegistry.addAlias(beanName, "shared"));
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        Assertions.assertEquals(threads.length, aliasRegistry.getBeanNames("shared").size(), "Alias is lost, might have a bug");
+        Assertions.assertThrows(AmbiguousReferenceException.class, () -> aliasRegistry.getBeanName("shared"),
+                "Ambiguous alias is not detected, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldMemoizeBeanAliases() {
+        ParentClassBeanAliasParser aliasParser = new ParentClassBeanAliasParser(new BeanQualifiedNameGenerator());
+
+        Set<String> aliases = aliasParser.parseBeanAliases(AuthenticationManager.class);
+        Assertions.assertTrue(aliases.contains(AbstractManager.class.getCanonicalName()), "Superclass is not an alias, might have a bug");
+        Assertions.assertTrue(aliases.contains(KnowWhoIAm.class.getCanonicalName()), "Interface is not an alias, might have a bug");
+        Assertions.assertTrue(aliases.contains(Object.class.getCanonicalName()));
+        Assertions.assertFalse(aliases.contains(AuthenticationManager.class.getCanonicalName()), "Class itself is an alias, might have a bug");
+        Assertions.assertSame(aliases, aliasParser.parseBeanAliases(AuthenticationManager.class), "Aliases are not memoized, might have a bug");
+
+        // interfaces don't extend Object
+        Assertions.assertFalse(aliasParser.parseBeanAliases(Service.class).contains(Object.class.getCanonicalName()));
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldCacheGeneratedBeanNames() {
+        CachingBeanNameGenerator beanNameGenerator = new CachingBeanNameGenerator(new BeanQualifiedNameGenerator());
+        String name = beanNameGenerator.generateBeanName(ServiceAggregator.class);
+        Assertions.assertEquals(ServiceAggregator.class.getCanonicalName(), name);
+        Assertions.assertSame(name, beanNameGenerator.generateBeanName(ServiceAggregator.class), "Bean name is not cached, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldGetBeanByClassAfterSealed() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                ServiceAggregator.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        BeanRegistry registry = applicationContext.getBeanRegistry();
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertSame(registry.getBeanByName(UserServiceImpl.class.getCanonicalName()), registry.getBeanByClass(UserService.class));
+            Assertions.assertSame(registry, registry.getBeanByClass(BeanRegistry.class));
+            Assertions.assertSame(applicationContext, registry.getBeanByClass(ApplicationContext.class));
+
+            // multiple beans implement the interface, it should always fail in the same way
+            Assertions.assertThrows(AmbiguousReferenceException.class, () -> registry.getBeanByClass(KnowWhoIAm.class),
+                    "Ambiguous interface is resolved, might have a bug");
+            Assertions.assertThrows(BeanNotFoundException.class, () -> registry.getBeanByClass(EmptyBean.class));
+        }
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldNotPinDiscardedRegistry() throws InterruptedException {
+        WeakReference<BeanRegistry> ref = lookUpAndDiscardRegistry();
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertNull(ref.get(), "Discarded registry is still reachable, might have a bug");
+        logger.info("Test passed");
+    }
+
+    private WeakReference<BeanRegistry> lookUpAndDiscardRegistry() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class);
+
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        // the classes are resolved and cached once sealed
+        registry.getBeanByClass(UserService.class);
+        registry.getBeanByClass(BeanRegistry.class);
+        registry.getBeanByClass(ApplicationContext.class);
+        return new WeakReference<>(registry);
+    }
+
+    @Test
+    public void shouldResolveBeansByGenericType() throws NoSuchFieldException {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                UserRepository.class,
+                OrderRepository.class,
+                RepositoryConsumer.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        BeanRegistry registry = applicationContext.getBeanRegistry();
+
+        // both repositories implement Repository, they are told apart by the type arguments
+        RepositoryConsumer consumer = registry.getBeanByClass(RepositoryConsumer.class);
+        Assertions.assertTrue(consumer.getUserRepository() instanceof UserRepository, "Generic type is not resolved, might have a bug");
+        Assertions.assertTrue(consumer.getOrderRepository() instanceof OrderRepository, "Generic type is not resolved, might have a bug");
+
+        Type userRepositoryType = RepositoryConsumer.class.getDeclaredField("userRepository").getGenericType();
+        Assertions.assertSame(consumer.getUserRepository(), registry.getBeanByType(userRepositoryType));
+        Assertions.assertThrows(AmbiguousReferenceException.class, () -> registry.getBeanByType(Repository.class),
+                "Raw type should still be ambiguous, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldFindBeanWithoutThrowing() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                ServiceAggregator.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        DefaultSingletonBeanRegistry registry = (DefaultSingletonBeanRegistry) applicationContext.getBeanRegistry();
+
+        Assertions.assertSame(registry.getBeanByClass(UserService.class), registry.findBeanByClass(UserService.class));
+        Assertions.assertSame(registry.getBeanByClass(UserService.class), registry.findBeanByName(UserService.class.getCanonicalName()));
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertNull(registry.findBeanByClass(EmptyBean.class), "Bean not registered is found, might have a bug");
+            Assertions.assertNull(registry.findBeanByName("optionalFeature"), "Bean not registered is found, might have a bug");
+        }
+        Assertions.assertThrows(AmbiguousReferenceException.class, () -> registry.findBeanByClass(KnowWhoIAm.class),
+                "Ambiguous reference is treated as not found, might have a bug");
+
+        // the missing beans are still reported by #getBeanByName
+        BeanNotFoundException e = Assertions.assertThrows(BeanNotFoundException.class, () -> registry.getBeanByName("optionalFeature"));
+        Assertions.assertTrue(e.getStackTrace().length > 0);
+
+        registry.setStacklessLookupExceptions(true);
+        e = Assertions.assertThrows(BeanNotFoundException.class, () -> registry.getBeanByName("optionalFeature"));
+        Assertions.assertEquals(0, e.getStackTrace().length, "Lookup exception is not stackless, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldChoosePrimaryBean() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                DefaultGreeter.class,
+                PrimaryGreeter.class,
+                GreeterClient.class);
+
+        ApplicationContext applicationContext = contextInitializer.initialize(BeanRegistryTest.class);
+        BeanRegistry registry = applicationContext.getBeanRegistry();
+
+        Assertions.assertTrue(registry.getBeanByClass(Greeter.class) instanceof PrimaryGreeter, "Primary bean is not chosen, might have a bug");
+        Assertions.assertTrue(registry.getBeanByClass(GreeterClient.class).getGreeter() instanceof PrimaryGreeter,
+                "Primary bean is not injected, might have a bug");
+        Assertions.assertTrue(registry.getBeanByClass(DefaultGreeter.class) instanceof DefaultGreeter);
+        Assertions.assertEquals(2, registry.getBeansOfType(Greeter.class).size());
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldInstantiateBeansInParallel() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                ServiceAggregator.class,
+                UserRepository.class,
+                OrderRepository.class,
+                RepositoryConsumer.class);
+        ((ConfigurableContextInitializer) contextInitializer).setBeanCreationParallelism(4);
+
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        ServiceAggregator serviceAggregator = registry.getBeanByClass(ServiceAggregator.class);
+        Assertions.assertSame(registry.getBeanByClass(AuthenticationManager.class), serviceAggregator.getAuthenticationManager(),
+                "Dependent instantiated in parallel is not injected, might have a bug");
+        Assertions.assertSame(registry.getBeanByClass(UserServiceImpl.class), serviceAggregator.getUserServiceImpl(),
+                "Dependent instantiated in parallel is not injected, might have a bug");
+        Assertions.assertSame(registry.getBeanByClass(UserRepository.class), registry.getBeanByClass(RepositoryConsumer.class).getUserRepository(),
+                "Generic dependent instantiated in parallel is not injected, might have a bug");
+
+        // falls back to the sequential instantiation, circular dependencies are still detected
+        ContextInitializer circular = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(circular,
+                IndirectCircularDependencyServiceAImpl.class,
+                IndirectCircularDependencyServiceBImpl.class,
+                IndirectCircularDependencyServiceCImpl.class);
+        ((ConfigurableContextInitializer) circular).setBeanCreationParallelism(4);
+        Assertions.assertThrows(CircularDependencyException.class, () -> circular.initialize(BeanRegistryTest.class),
+                "Should detect circular dependency when instantiated in parallel, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldCreateLazyBeanOnFirstLookup() throws InterruptedException {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                LazyReport.class);
+
+        LazyReport.INSTANCES.set(0);
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        Assertions.assertEquals(0, LazyReport.INSTANCES.get(), "Lazy bean is pre-instantiated, might have a bug");
+        Assertions.assertTrue(registry.containsBean(LazyReport.class), "Lazy bean is not registered, might have a bug");
+        Assertions.assertTrue(registry.getBeansOfType(LazyReport.class).isEmpty(), "Lazy bean is indexed before it's created, might have a bug");
+
+        // looked up by multiple threads at once, only one instance should be created
+        LazyReport[] found = new LazyReport[8];
+        Thread[] threads = new Thread[found.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int j = i;
+            threads[i] = new Thread(() -> found[j] = registry.getBeanByClass(LazyReport.class));
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        Assertions.assertEquals(1, LazyReport.INSTANCES.get(), "Lazy bean is created more than once, might have a bug");
+        for (LazyReport r : found)
+            Assertions.assertSame(found[0], r, "Different instances of lazy bean are returned, might have a bug");
+        Assertions.assertSame(registry.getBeanByClass(AuthenticationManager.class), found[0].getAuthenticationManager(),
+                "Dependent is not injected into lazy bean, might have a bug");
+        Assertions.assertSame(found[0], registry.getBeansOfType(LazyReport.class).get(LazyReport.class.getCanonicalName()),
+                "Lazy bean is not indexed once it's created, might have a bug");
+        Assertions.assertEquals(1, registry.getBeanListOfType(LazyReport.class).size());
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldCreateEachBeanOnceConcurrently() throws InterruptedException {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuthenticationManager.class,
+                UserServiceImpl.class,
+                LazyReport.class,
+                LazyAudit.class);
+
+        LazyReport.INSTANCES.set(0);
+        LazyAudit.INSTANCES.set(0);
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+
+        // half of the threads look up the audit (which depends on the report), the others look up the report
+        Object[] found = new Object[16];
+        Thread[] threads = new Thread[found.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int j = i;
+            final Class<?> type = i % 2 == 0 ? LazyAudit.class : LazyReport.class;
+            threads[i] = new Thread(() -> found[j] = registry.getBeanByClass(type));
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        Assertions.assertEquals(1, LazyReport.INSTANCES.get(), "Bean is created more than once, might have a bug");
+        Assertions.assertEquals(1, LazyAudit.INSTANCES.get(), "Bean is created more than once, might have a bug");
+        for (int i = 0; i < found.length; i++) {
+            Assertions.assertNotNull(found[i], "Bean is not found, might have a bug");
+            Assertions.assertSame(found[i % 2], found[i], "Different instances are returned, might have a bug");
+        }
+        Assertions.assertSame(found[1], ((LazyAudit) found[0]).getLazyReport(),
+                "Bean is not fully initialised when returned, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldNotReturnLazyBeanThatFailedToBeCreated() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        // the report that the audit depends on is missing
+        setupMockScanner(contextInitializer,
+                LazyAudit.class);
+
+        LazyAudit.INSTANCES.set(0);
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        Assertions.assertThrows(ContextException.class, () -> registry.getBeanByClass(LazyAudit.class));
+        Assertions.assertThrows(ContextException.class, () -> registry.getBeanByClass(LazyAudit.class),
+                "Half-built bean is returned, might have a bug");
+        Assertions.assertEquals(2, LazyAudit.INSTANCES.get(), "Failed creation is not retried, might have a bug");
+        Assertions.assertTrue(registry.getBeansOfType(LazyAudit.class).isEmpty(), "Half-built bean is indexed, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldInjectLazyDependencyProxy() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                AuditLogImpl.class,
+                AuditedService.class);
+
+        AuditLogImpl.INSTANCES.set(0);
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        AuditLog auditLog = registry.getBeanByClass(AuditedService.class).getAuditLog();
+        Assertions.assertNotNull(auditLog, "Lazy dependency is not injected, might have a bug");
+        Assertions.assertEquals(0, AuditLogImpl.INSTANCES.get(), "Lazy dependency is resolved eagerly, might have a bug");
+
+        // resolved on the first method call
+        Assertions.assertEquals("recorded: login", auditLog.record("login"));
+        Assertions.assertEquals(1, AuditLogImpl.INSTANCES.get(), "Lazy dependency is not resolved, might have a bug");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> auditLog.record(null),
+                "Exception thrown by the bean is wrapped, might have a bug");
+        Assertions.assertEquals(1, AuditLogImpl.INSTANCES.get());
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldResolveLazyPrototypeDependencyOnce() throws InterruptedException {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                PrototypeClock.class,
+                ClockClient.class);
+
+        PrototypeClock.INSTANCES.set(0);
+        ClockClient client = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry()
+                .getBeanByClass(ClockClient.class);
+        Assertions.assertEquals(0, PrototypeClock.INSTANCES.get(), "Lazy dependency is resolved eagerly, might have a bug");
+
+        // the interface is package-private, and the first calls are made concurrently
+        Thread[] threads = new Thread[8];
+        long[] results = new long[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int j = i;
+            threads[i] = new Thread(() -> results[j] = client.now());
+        }
+        for (Thread t : threads)
+            t.start();
+        for (Thread t : threads)
+            t.join();
+
+        for (long r : results)
+            Assertions.assertEquals(1L, r, "Method of non-public interface is not invoked, might have a bug");
+        Assertions.assertEquals(1, PrototypeClock.INSTANCES.get(), "Lazy dependency is resolved more than once, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldNotAllowLazyDependencyOfClassType() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer, BeanWithLazyClassDependency.class, EmptyBean.class);
+
+        Assertions.assertThrows(TypeNotSupportedForInjectionException.class, () -> {
+            contextInitializer.initialize(BeanRegistryTest.class);
+        }, "Lazy dependency of class type should not be allowed, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldCreatePrototypeBeanForEachLookup() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                UserServiceImpl.class,
+                PrototypeParser.class,
+                ParserClient.class);
+
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        PrototypeParser first = registry.getBeanByClass(PrototypeParser.class);
+        PrototypeParser second = registry.getBeanByClass(PrototypeParser.class);
+        Assertions.assertNotSame(first, second, "Prototype bean is shared, might have a bug");
+        Assertions.assertNotNull(second.getUserService(), "Dependent is not injected into prototype bean, might have a bug");
+        Assertions.assertSame(first.getUserService(), second.getUserService());
+
+        PrototypeParser injected = registry.getBeanByClass(ParserClient.class).getPrototypeParser();
+        Assertions.assertNotNull(injected, "Prototype bean is not injected, might have a bug");
+        Assertions.assertNotSame(first, injected);
+        Assertions.assertNotNull(injected.getUserService(), "Dependent is not injected into prototype bean, might have a bug");
+        Assertions.assertTrue(registry.containsBean(PrototypeParser.class));
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldBorrowAndReleasePooledBean() {
+        ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+        setupMockScanner(contextInitializer,
+                UserServiceImpl.class,
+                PrototypeParser.class,
+                PooledFormatter.class);
+
+        BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+        PooledFormatter a = registry.getBeanByClass(PooledFormatter.class);
+        PooledFormatter b = registry.getBeanByClass(PooledFormatter.class);
+        PooledFormatter c = registry.getBeanByClass(PooledFormatter.class);
+        Assertions.assertNotSame(a, b, "Borrowed bean is shared, might have a bug");
+        Assertions.assertNotSame(a.getPrototypeParser(), b.getPrototypeParser());
+        Assertions.assertNotNull(c.getPrototypeParser().getUserService(), "Dependent is not injected, might have a bug");
+
+        // the pool only keeps 2 idle instances
+        registry.releaseBean(PooledFormatter.class, a);
+        registry.releaseBean(PooledFormatter.class.getCanonicalName(), b);
+        registry.releaseBean(PooledFormatter.class, c);
+        Set<Object> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+        reused.add(registry.getBeanByClass(PooledFormatter.class));
+        reused.add(registry.getBeanByClass(PooledFormatter.class));
+        Assertions.assertEquals(2, reused.size());
+        Assertions.assertTrue(reused.contains(a) && reused.contains(b), "Released bean is not reused, might have a bug");
+        Assertions.assertFalse(reused.contains(registry.getBeanByClass(PooledFormatter.class)),
+                "Pool is not empty, might have a bug");
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldEvictIdleBeansFromPool() {
+        AtomicLong clock = new AtomicLong();
+        BeanPool pool = new BeanPool(2, 200L, clock::get);
+        Assertions.assertTrue(pool.release(new Object()));
+        Assertions.assertTrue(pool.release(new Object()));
+        Assertions.assertFalse(pool.release(new Object()), "Pool is not bounded, might have a bug");
+        Assertions.assertEquals(2, pool.size());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        Assertions.assertNull(pool.borrow(), "Idle bean is not evicted, might have a bug");
+        Assertions.assertEquals(0, pool.size(), "Expired beans are not dropped, might have a bug");
+
+        Object fresh = new Object();
+        Assertions.assertTrue(pool.release(fresh));
+        Assertions.assertTrue(pool.release(new Object()));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        Assertions.assertFalse(pool.release(new Object()), "Bean is evicted before it expires, might have a bug");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        Assertions.assertTrue(pool.release(new Object()), "Expired bean is not evicted on release, might have a bug");
+        Assertions.assertEquals(1, pool.size());
+
+        BeanPool longLived = new BeanPool(1, 60_000L, clock::get);
+        longLived.release(fresh);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        Assertions.assertSame(fresh, longLived.borrow());
+        Assertions.assertNull(longLived.borrow());
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldDetectCircularDependencyBetweenConcurrentCreations() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            ContextInitializer contextInitializer = ApplicationContextFactory.getNewContextInitializer();
+            setupMockScanner(contextInitializer,
+                    LazyPing.class,
+                    LazyPong.class);
+            BeanRegistry registry = contextInitializer.initialize(BeanRegistryTest.class).getBeanRegistry();
+
+            // the lazy beans depend on each other through their interfaces, and they are created by different threads
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Throwable[] errors = new Throwable[2];
+            Class<?>[] types = {Ping.class, Pong.class};
+            Thread[] threads = new Thread[2];
+            for (int i = 0; i < threads.length; i++) {
+                final int j = i;
+                threads[i] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        registry.getBeanByClass(types[j]);
+                    } catch (Throwable e) {
+                        errors[j] = e;
+                    }
+                });
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+            for (Thread t : threads) {
+                t.join(5000);
+                Assertions.assertFalse(t.isAlive(), "Threads are waiting for each other, might have a bug");
+            }
+            Assertions.assertTrue(errors[0] instanceof CircularDependencyException, "Circular dependency is not detected, might have a bug");
+            Assertions.assertTrue(errors[1] instanceof CircularDependencyException, "Circular dependency is not detected, might have a bug");
+        }
+        logger.info("Test passed");
+    }
+
     private void setupMockScanner(ContextInitializer mockedInitializer, Class<?>... clazzToBeFound) {
         ConfigurableContextInitializer ctx = (ConfigurableContextInitializer) mockedInitializer;
         if (ctx.canMuteLog())
@@ -0,0 +1,365 @@
+package com.curtisnewbie.module.ioc.processing;
+
+import com.curtisnewbie.module.ioc.annotations.MBean;
+import com.curtisnewbie.module.ioc.beans.casees.composed.ComposedAnnotationBean;
+import com.curtisnewbie.module.ioc.beans.casees.composed.ManagedService;
+import com.curtisnewbie.module.ioc.beans.casees.composed.NotABean;
+import com.curtisnewbie.module.ioc.beans.casees.invalid.EmptyBean;
+import com.curtisnewbie.module.ioc.beans.casees.normal.AuthenticationManager;
+import com.curtisnewbie.module.ioc.beans.casees.normal.ServiceAggregator;
+import com.curtisnewbie.module.ioc.beans.casees.normal.UserService;
+import com.curtisnewbie.module.ioc.beans.casees.normal.UserServiceImpl;
+import com.curtisnewbie.module.ioc.index.MBeanIndex;
+import com.curtisnewbie.module.ioc.index.MBeanIndexProcessor;
+import com.curtisnewbie.module.ioc.context.ClassPathRefreshablePropertyRegistry;
+import com.curtisnewbie.module.ioc.scan.ClassPathFingerprint;
+import com.curtisnewbie.module.ioc.scan.ClassPathIndex;
+import com.curtisnewbie.module.ioc.scan.ClassPathRoots;
+import com.curtisnewbie.module.ioc.scan.ScanCache;
+import com.curtisnewbie.module.ioc.scan.ScanRecorder;
+import com.curtisnewbie.module.ioc.scan.ScanReport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * @author yongjie.zhuang
+ */
+public class BeanClassScannerTest {
+
+    private static final Logger logger = Logger.getLogger(BeanClassScannerTest.class.toString());
+
+    @Test
+    public void shouldGenerateIndexAtCompileTime() {
+        MBeanIndex index = MBeanIndex.load(BeanClassScannerTest.class.getClassLoader());
+        Assertions.assertNotNull(index, "MBeanIndex is not generated for test classes, might have a bug");
+        Assertions.assertTrue(index.getBeanClassNames().contains(UserServiceImpl.class.getName()));
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldMergeIndexOnIncrementalCompilation(@TempDir Path tempDir) throws Exception {
+        Path src = Files.createDirectories(tempDir.resolve("src/incremental"));
+        Path out = Files.createDirectories(tempDir.resolve("out"));
+        Path a = Files.write(src.resolve("A.java"), "package incremental; @com.curtisnewbie.module.ioc.annotations.MBean public class A {}".getBytes());
+        Path b = Files.write(src.resolve("B.java"), "package incremental; @com.curtisnewbie.module.ioc.annotations.MBean public class B {}".getBytes());
+        compile(out, true, a, b);
+
+        // only A is recompiled, B is still in the index
+        compile(out, true, a);
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("incremental.A", "incremental.B")), loadIndex(out),
+                "Index is not merged on incremental compilation, might have a bug");
+
+        // B is no longer a bean
+        Files.write(b, "package incremental; public class B {}".getBytes());
+        compile(out, true, b);
+        Assertions.assertEquals(Collections.singleton("incremental.A"), loadIndex(out));
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldScanClassPathEntriesWithoutIndex(@TempDir Path tempDir) throws Exception {
+        Path src = Files.createDirectories(tempDir.resolve("src/notindexed"));
+        Path out = Files.createDirectories(tempDir.resolve("out"));
+        compile(out, false, Files.write(src.resolve("Plain.java"),
+                "package notindexed; @com.curtisnewbie.module.ioc.annotations.MBean public class Plain {}".getBytes()));
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{out.toUri().toURL()}, BeanClassScannerTest.class.getClassLoader())) {
+            IndexedBeanClassScanner scanner = new IndexedBeanClassScanner();
+            scanner.setClassLoader(cl);
+            scanner.setBasePackages(new HashSet<>(Arrays.asList("notindexed", ServiceAggregator.class.getPackage().getName())));
+            Set<Class<?>> beanClasses = scanner.scanBeanClasses();
+            Assertions.assertTrue(beanClasses.contains(ServiceAggregator.class), "Bean not found in index, might have a bug");
+            Assertions.assertTrue(beanClasses.contains(cl.loadClass("notindexed.Plain")),
+                    "Bean in classpath entry without index is not scanned, might have a bug");
+        }
+        logger.info("Test passed");
+    }
+
+    private static void compile(Path out, boolean withIndexProcessor, Path... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fm = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            String classPath = Paths.get(MBean.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    + File.pathSeparator + out;
+            List<String> options = Arrays.asList("-d", out.toString(), "-classpath", classPath);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fm, null, options, null,
+                    fm.getJavaFileObjects(sources));
+            if (withIndexProcessor)
+                task.setProcessors(Collections.singletonList(new MBeanIndexProcessor()));
+            else
+                task.setProcessors(Collections.emptyList());
+            Assertions.assertTrue(task.call(), "Unable to compile test sources");
+        }
+    }
+
+    private static Set<String> loadIndex(Path out) throws Exception {
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{out.toUri().toURL()}, null)) {
+            return MBeanIndex.load(cl).getBeanClassNames();
+        }
+    }
+
+    @Test
+    public void shouldScanBeanClassesFromIndex() {
+        Set<Class<?>> beanClasses = new IndexedBeanClassScanner().scanBeanClasses();
+        Assertions.assertTrue(beanClasses.contains(ServiceAggregator.class), "Bean not found in index, might have a bug");
+        Assertions.assertTrue(beanClasses.contains(AuthenticationManager.class), "Bean not found in index, might have a bug");
+        Assertions.assertFalse(beanClasses.contains(UserService.class), "Interface without @MBean is indexed, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldOnlyScanBasePackages() {
+        String basePackage = ServiceAggregator.class.getPackage().getName();
+
+        AnnotatedBeanClassScanner reflectionsScanner = new AnnotatedBeanClassScanner();
+        reflectionsScanner.setBasePackages(Collections.singleton(basePackage));
+        Set<Class<?>> beanClasses = reflectionsScanner.scanBeanClasses();
+        Assertions.assertTrue(beanClasses.contains(ServiceAggregator.class), "Bean in base package not found, might have a bug");
+        Assertions.assertFalse(beanClasses.contains(EmptyBean.class), "Bean outside base package found, might have a bug");
+
+        IndexedBeanClassScanner indexedScanner = new IndexedBeanClassScanner();
+        indexedScanner.setBasePackages(Collections.singleton(basePackage));
+        Assertions.assertEquals(beanClasses, indexedScanner.scanBeanClasses());
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldScanConcurrently() {
+        AnnotatedBeanClassScanner singleThreaded = new AnnotatedBeanClassScanner();
+        singleThreaded.setParallelism(1);
+
+        AnnotatedBeanClassScanner parallel = new AnnotatedBeanClassScanner();
+        parallel.setParallelism(4);
+
+        Assertions.assertEquals(singleThreaded.scanBeanClasses(), parallel.scanBeanClasses(),
+                "Parallel scanning found different beans, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldScanBeanClassesFromBytecode() {
+        AnnotatedBeanClassScanner reflectionsScanner = new AnnotatedBeanClassScanner();
+        reflectionsScanner.setBasePackages(Collections.singleton("com.curtisnewbie.module.ioc.beans.casees.normal"));
+
+        BytecodeBeanClassScanner bytecodeScanner = new BytecodeBeanClassScanner();
+        bytecodeScanner.setBasePackages(Collections.singleton("com.curtisnewbie.module.ioc.beans.casees.normal"));
+        Assertions.assertEquals(reflectionsScanner.scanBeanClasses(), bytecodeScanner.scanBeanClasses(),
+                "Bytecode scanner found different beans, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldScanBeanClassesWithComposedAnnotation() {
+        BytecodeBeanClassScanner bytecodeScanner = new BytecodeBeanClassScanner();
+        bytecodeScanner.setBasePackages(Collections.singleton(ComposedAnnotationBean.class.getPackage().getName()));
+        Set<Class<?>> beanClasses = bytecodeScanner.scanBeanClasses();
+        Assertions.assertTrue(beanClasses.contains(ComposedAnnotationBean.class), "Composed annotation not resolved, might have a bug");
+        Assertions.assertFalse(beanClasses.contains(ManagedService.class), "Annotation type is treated as bean, might have a bug");
+        Assertions.assertFalse(beanClasses.contains(NotABean.class), "Class without @MBean is treated as bean, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldReuseCachedScanResult(@TempDir Path cacheDir) {
+        Set<String> basePackages = Collections.singleton(ServiceAggregator.class.getPackage().getName());
+        ScanCache cache = new ScanCache(cacheDir);
+
+        BytecodeBeanClassScanner coldScanner = new BytecodeBeanClassScanner();
+        coldScanner.setBasePackages(basePackages);
+        coldScanner.setScanCache(cache);
+        Set<Class<?>> scanned = coldScanner.scanBeanClasses();
+
+        ClassPathFingerprint fingerprint = ClassPathFingerprint.compute(
+                ClassPathRoots.forPackages(basePackages, BeanClassScannerTest.class.getClassLoader()), basePackages);
+        Assertions.assertNotNull(cache.read("mbean-classes", fingerprint), "Scan result is not cached, might have a bug");
+
+        // overwrite the cached result, a warm scan should never touch the classpath
+        cache.write("mbean-classes", fingerprint, Collections.singleton(EmptyBean.class.getName()));
+        BytecodeBeanClassScanner warmScanner = new BytecodeBeanClassScanner();
+        warmScanner.setBasePackages(basePackages);
+        warmScanner.setScanCache(cache);
+        Assertions.assertEquals(Collections.singleton(EmptyBean.class), warmScanner.scanBeanClasses(),
+                "Cached scan result is not used, might have a bug");
+        Assertions.assertTrue(scanned.contains(ServiceAggregator.class));
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldShareClassPathIndex() {
+        Set<String> basePackages = Collections.singleton(ServiceAggregator.class.getPackage().getName());
+        ClassPathIndex classPathIndex = new ClassPathIndex();
+
+        ClassPathRefreshablePropertyRegistry propertyRegistry = new ClassPathRefreshablePropertyRegistry(classPathIndex);
+        propertyRegistry.setBasePackages(basePackages);
+        propertyRegistry.refresh();
+        Assertions.assertNotNull(propertyRegistry.getProperty("test.bean-name"), "Properties not loaded, might have a bug");
+        Assertions.assertNotNull(propertyRegistry.getScanReport(), "Properties scan is not reported, might have a bug");
+
+        // the property registry never reads the class files
+        ClassLoader cl = BeanClassScannerTest.class.getClassLoader();
+        Assertions.assertTrue(classPathIndex.scanPropertiesResources(basePackages, cl).getBeanClassNames().isEmpty(),
+                "Class files are read for the properties, might have a bug");
+
+        // the filter of classes doesn't affect the properties files found by the registry
+        BytecodeBeanClassScanner scanner = new BytecodeBeanClassScanner(classPathIndex);
+        scanner.setBasePackages(basePackages);
+        scanner.setExcludePatterns(Collections.singleton(UserServiceImpl.class.getName()));
+        Assertions.assertTrue(scanner.scanBeanClasses().contains(ServiceAggregator.class));
+
+        // both of them should be served by a single walk of the classpath
+        Assertions.assertSame(classPathIndex.scan(basePackages, cl), classPathIndex.scan(basePackages, cl),
+                "Classpath is walked again for the same packages, might have a bug");
+        Assertions.assertTrue(classPathIndex.scan(basePackages, cl).getPropertiesResources().contains("bean-test1.properties"));
+
+        // the full scan is reported by the scanner, the property registry that reuses it doesn't report it again
+        ClassPathRefreshablePropertyRegistry sharingRegistry = new ClassPathRefreshablePropertyRegistry(classPathIndex);
+        sharingRegistry.setBasePackages(basePackages);
+        sharingRegistry.refresh();
+        Assertions.assertNull(sharingRegistry.getScanReport(), "Shared scan is reported twice, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldWalkEachClassPathEntryOnce() {
+        Set<String> basePackages = Collections.singleton(ServiceAggregator.class.getPackage().getName());
+        ClassPathIndex classPathIndex = new ClassPathIndex();
+        IndexedBeanClassScanner scanner = new IndexedBeanClassScanner(classPathIndex);
+        scanner.setBasePackages(basePackages);
+        ClassPathRefreshablePropertyRegistry propertyRegistry = new ClassPathRefreshablePropertyRegistry(classPathIndex);
+        propertyRegistry.setBasePackages(basePackages);
+
+        // same order as the application context, the properties are loaded before the bean classes are scanned
+        propertyRegistry.refresh();
+        Set<Class<?>> beanClasses = scanner.scanBeanClasses();
+        Assertions.assertTrue(beanClasses.contains(ServiceAggregator.class));
+        Assertions.assertNotNull(propertyRegistry.getProperty("test.bean-name"), "Properties not loaded, might have a bug");
+
+        ScanRecorder recorder = new ScanRecorder();
+        recorder.merge(scanner.getScanReport());
+        recorder.merge(propertyRegistry.getScanReport());
+        ScanReport report = recorder.toReport();
+        Assertions.assertEquals(ClassPathRoots.forPackages(basePackages, BeanClassScannerTest.class.getClassLoader()).size(),
+                report.getRoots().size(), "Not all classpath entries are walked, might have a bug");
+        for (ScanReport.RootReport r : report.getRoots())
+            Assertions.assertEquals(1, r.getWalks(), r.getRoot() + " is walked more than once, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldSkipMalformedClassFiles(@TempDir Path tempDir) throws Exception {
+        String packageName = ServiceAggregator.class.getPackage().getName();
+        Path packageDir = Files.createDirectories(tempDir.resolve(packageName.replace('.', '/')));
+        String beanClassFile = ServiceAggregator.class.getSimpleName() + ".class";
+        try (InputStream in = ServiceAggregator.class.getResourceAsStream(beanClassFile)) {
+            Files.copy(in, packageDir.resolve(beanClassFile));
+        }
+        Files.write(packageDir.resolve("Corrupted.class"), new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, null)) {
+            Set<String> beanClassNames = new ClassPathIndex().scan(Collections.singleton(packageName), cl).getBeanClassNames();
+            Assertions.assertEquals(Collections.singleton(ServiceAggregator.class.getName()), beanClassNames,
+                    "Scan is aborted by a malformed class file, might have a bug");
+        }
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldSkipBeanClassesThatCannotBeLoaded(@TempDir Path tempDir) throws Exception {
+        Path src = Files.createDirectories(tempDir.resolve("src/unloadable"));
+        Path out = Files.createDirectories(tempDir.resolve("out"));
+        compile(out, false,
+                Files.write(src.resolve("Parent.java"), "package unloadable; public class Parent {}".getBytes()),
+                Files.write(src.resolve("Child.java"),
+                        "package unloadable; @com.curtisnewbie.module.ioc.annotations.MBean public class Child extends Parent {}".getBytes()),
+                Files.write(src.resolve("Loadable.java"),
+                        "package unloadable; @com.curtisnewbie.module.ioc.annotations.MBean public class Loadable {}".getBytes()));
+        // the superclass is missing, the bean class can't be loaded
+        Files.delete(out.resolve("unloadable/Parent.class"));
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{out.toUri().toURL()}, BeanClassScannerTest.class.getClassLoader())) {
+            BytecodeBeanClassScanner scanner = new BytecodeBeanClassScanner();
+            scanner.setClassLoader(cl);
+            scanner.setBasePackages(Collections.singleton("unloadable"));
+            Assertions.assertEquals(Collections.singleton(cl.loadClass("unloadable.Loadable")), scanner.scanBeanClasses(),
+                    "Scan is aborted by a class that can't be loaded, might have a bug");
+        }
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldExcludeClassesByPatterns() {
+        Set<String> basePackages = Collections.singleton("com.curtisnewbie.module.ioc.beans.casees");
+        Set<String> excludes = Collections.singleton("com.curtisnewbie.module.ioc.beans.casees.normal");
+
+        for (AbstractBeanClassScanner scanner : Arrays.asList(new AnnotatedBeanClassScanner(),
+                new BytecodeBeanClassScanner(), new IndexedBeanClassScanner())) {
+            scanner.setBasePackages(basePackages);
+            scanner.setExcludePatterns(excludes);
+            Set<Class<?>> beanClasses = scanner.scanBeanClasses();
+            Assertions.assertFalse(beanClasses.contains(ServiceAggregator.class),
+                    "Excluded bean found by " + scanner.getClass().getSimpleName() + ", might have a bug");
+            Assertions.assertTrue(beanClasses.contains(EmptyBean.class),
+                    "Bean not excluded is missing in " + scanner.getClass().getSimpleName() + ", might have a bug");
+        }
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldReportScanStatistics(@TempDir Path cacheDir) {
+        Set<String> basePackages = Collections.singleton(ServiceAggregator.class.getPackage().getName());
+        ScanCache cache = new ScanCache(cacheDir);
+
+        BytecodeBeanClassScanner coldScanner = new BytecodeBeanClassScanner();
+        coldScanner.setBasePackages(basePackages);
+        coldScanner.setScanCache(cache);
+        Set<Class<?>> beanClasses = coldScanner.scanBeanClasses();
+        ScanReport report = coldScanner.getScanReport();
+        Assertions.assertNotNull(report, "Scan report is not produced, might have a bug");
+        Assertions.assertFalse(report.getRoots().isEmpty(), "Roots walked are not reported, might have a bug");
+        Assertions.assertTrue(report.getEntriesVisited() > 0);
+        Assertions.assertTrue(report.getBytesRead() > 0);
+        Assertions.assertEquals(beanClasses.size(), report.getClassesLoaded());
+        Assertions.assertEquals(beanClasses.size(), report.getAnnotationHits());
+        Assertions.assertEquals(1, report.getCacheMisses());
+        Assertions.assertEquals(0, report.getCacheHits());
+
+        BytecodeBeanClassScanner warmScanner = new BytecodeBeanClassScanner();
+        warmScanner.setBasePackages(basePackages);
+        warmScanner.setScanCache(cache);
+        warmScanner.scanBeanClasses();
+        ScanReport warmReport = warmScanner.getScanReport();
+        Assertions.assertEquals(1, warmReport.getCacheHits(), "Cache hit is not reported, might have a bug");
+        Assertions.assertTrue(warmReport.getRoots().isEmpty(), "Classpath is walked on cache hit, might have a bug");
+
+        logger.info("Test passed");
+    }
+}
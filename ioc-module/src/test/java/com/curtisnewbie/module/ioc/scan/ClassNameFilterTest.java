@@ -0,0 +1,46 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.logging.Logger;
+
+/**
+ * @author yongjie.zhuang
+ */
+public class ClassNameFilterTest {
+
+    private static final Logger logger = Logger.getLogger(ClassNameFilterTest.class.toString());
+
+    @Test
+    public void shouldMatchMostSpecificPattern() {
+        ClassNameFilter filter = ClassNameFilter.of(
+                Collections.singletonList("com.app"),
+                Arrays.asList("com.app.generated", "com.app.Gen*", "com.app.Legacy"));
+
+        Assertions.assertTrue(filter.accepts("com.app.Service"));
+        Assertions.assertTrue(filter.accepts("com/app/service/Impl.class"));
+        Assertions.assertFalse(filter.accepts("com.other.Service"), "Class outside include patterns accepted, might have a bug");
+        Assertions.assertFalse(filter.accepts("com/app/generated/Dto.class"), "Excluded package accepted, might have a bug");
+        Assertions.assertFalse(filter.accepts("com.app.GenService"), "Excluded prefix accepted, might have a bug");
+        Assertions.assertFalse(filter.accepts("com.app.Legacy$Inner"), "Nested class of excluded class accepted, might have a bug");
+        Assertions.assertTrue(filter.accepts("com.app.LegacyAdapter"), "Pattern matched beyond name boundary, might have a bug");
+        Assertions.assertFalse(filter.accepts("com.application.Main"), "Package matched beyond boundary, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldAcceptAllWithoutIncludePatterns() {
+        ClassNameFilter filter = ClassNameFilter.of(Collections.emptyList(), Collections.singletonList("org.vendor"));
+        Assertions.assertTrue(filter.accepts("com.app.Service"));
+        Assertions.assertFalse(filter.accepts("org/vendor/shaded/Lib.class"));
+        Assertions.assertSame(ClassNameFilter.ACCEPT_ALL, ClassNameFilter.of(Collections.emptyList(), Collections.emptyList()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ClassNameFilter.of(Collections.singletonList("com.*.app"), Collections.emptyList()));
+
+        logger.info("Test passed");
+    }
+}
@@ -0,0 +1,213 @@
+package com.curtisnewbie.module.ioc.scan;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * @author yongjie.zhuang
+ */
+public class ClassPathWalkerTest {
+
+    private static final Logger logger = Logger.getLogger(ClassPathWalkerTest.class.toString());
+
+    @Test
+    public void shouldWalkArchive(@TempDir Path dir) throws IOException {
+        Path jar = dir.resolve("test.jar");
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            writeArchive(out);
+        }
+
+        Map<String, String> visited = walk(jar, Collections.singletonList(EntryNameRule.forPackage("com.app", ".txt")));
+        Assertions.assertEquals(2, visited.size(), "Entries are not filtered by rules, might have a bug");
+        Assertions.assertEquals("stored content", visited.get("com/app/stored.txt"));
+        Assertions.assertEquals("deflated content", visited.get("com/app/deflated.txt"));
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldWalkArchiveWithPrependedBytes(@TempDir Path dir) throws IOException {
+        // e.g., executable jars with a launch script prepended
+        Path jar = dir.resolve("test.jar");
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            out.write("#!/bin/sh\nexec java -jar \"$0\"\n".getBytes(StandardCharsets.UTF_8));
+            writeArchive(out);
+        }
+
+        Map<String, String> visited = walk(jar, null);
+        Assertions.assertEquals(3, visited.size());
+        Assertions.assertEquals("deflated content", visited.get("com/app/deflated.txt"),
+                "Entry is not read with offset of archive, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldWalkNestedArchivesInPlace(@TempDir Path dir) throws IOException {
+        ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        writeArchive(nested);
+
+        Path jar = dir.resolve("fat.jar");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(zos, "META-INF/MANIFEST.MF", ("Manifest-Version: 1.0\r\n"
+                    + "Main-Class: org.springframework.boot.loader.JarLauncher\r\n"
+                    + "Start-Class: com.main.App\r\n\r\n").getBytes(StandardCharsets.UTF_8), false);
+            writeEntry(zos, "org/loader/Launcher.txt", "launcher".getBytes(StandardCharsets.UTF_8), false);
+            writeEntry(zos, "BOOT-INF/classes/com/main/app.txt", "app".getBytes(StandardCharsets.UTF_8), false);
+            writeEntry(zos, "BOOT-INF/lib/dep.jar", nested.toByteArray(), true);
+        }
+
+        Map<String, String> visited = walk(new ClassPathRoot(jar), null);
+        Assertions.assertEquals("launcher", visited.get("org/loader/Launcher.txt"));
+        Assertions.assertEquals("app", visited.get("com/main/app.txt"), "Nested classes not found, might have a bug");
+        Assertions.assertEquals("stored content", visited.get("com/app/stored.txt"), "Nested archive not walked, might have a bug");
+        Assertions.assertEquals("deflated content", visited.get("com/app/deflated.txt"));
+        Assertions.assertFalse(visited.containsKey("BOOT-INF/lib/dep.jar"), "Nested archive is visited as entry, might have a bug");
+
+        Map<String, String> nestedVisited = walk(new ClassPathRoot(jar, "BOOT-INF/lib/dep.jar"), null);
+        Assertions.assertEquals(3, nestedVisited.size());
+        Assertions.assertEquals("deflated content", nestedVisited.get("com/app/deflated.txt"));
+
+        Map<String, String> classesVisited = walk(new ClassPathRoot(jar, "BOOT-INF/classes/"), null);
+        Assertions.assertEquals(Collections.singletonMap("com/main/app.txt", "app"), classesVisited);
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldNotApplyFatJarLayoutToOrdinaryArchives(@TempDir Path dir) throws IOException {
+        ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        writeArchive(nested);
+
+        // e.g., a dependency that happens to bundle jars, they are not visible to the classloader
+        Path jar = dir.resolve("ordinary.jar");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(zos, "META-INF/MANIFEST.MF", ("Manifest-Version: 1.0\r\n"
+                    + "Main-Class: com.tool.Main\r\n\r\n").getBytes(StandardCharsets.UTF_8), false);
+            writeEntry(zos, "BOOT-INF/classes/com/main/app.txt", "app".getBytes(StandardCharsets.UTF_8), false);
+            writeEntry(zos, "lib/dep.jar", nested.toByteArray(), true);
+        }
+
+        Map<String, String> visited = walk(new ClassPathRoot(jar), null);
+        Assertions.assertFalse(visited.containsKey("com/main/app.txt"), "Fat jar layout applied to ordinary jar, might have a bug");
+        Assertions.assertFalse(visited.containsKey("com/app/stored.txt"), "Nested archive of ordinary jar walked, might have a bug");
+        Assertions.assertEquals("app", visited.get("BOOT-INF/classes/com/main/app.txt"));
+        Assertions.assertTrue(visited.containsKey("lib/dep.jar"));
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldSkipArchivesThatCannotBeRead(@TempDir Path dir) throws IOException {
+        Path corrupted = Files.write(dir.resolve("corrupted.jar"), "not a zip archive".getBytes(StandardCharsets.UTF_8));
+        Path jar = dir.resolve("test.jar");
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            writeArchive(out);
+        }
+
+        Map<String, String> visited = new ConcurrentHashMap<>();
+        new ClassPathWalker(2).walk(
+                Arrays.asList(new ClassPathRoot(corrupted), new ClassPathRoot(jar)),
+                name -> true,
+                (r, entry) -> visited.put(entry.getName(), r.toString()));
+        Assertions.assertEquals(3, visited.size(), "Readable archive is not walked, might have a bug");
+
+        logger.info("Test passed");
+    }
+
+    @Test
+    public void shouldReadArchiveWithOrWithoutMapping(@TempDir Path dir) throws IOException {
+        ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        writeArchive(nested);
+        Path jar = dir.resolve("fat.jar");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(zos, "META-INF/MANIFEST.MF", ("Manifest-Version: 1.0\r\n"
+                    + "Start-Class: com.main.App\r\n\r\n").getBytes(StandardCharsets.UTF_8), false);
+            writeEntry(zos, "BOOT-INF/lib/stored.jar", nested.toByteArray(), true);
+            writeEntry(zos, "BOOT-INF/lib/deflated.jar", nested.toByteArray(), false);
+        }
+
+        for (boolean map : new boolean[]{true, false}) {
+            Map<String, String> visited = new HashMap<>();
+            ClassPathEntryVisitor visitor = (r, entry) -> {
+                ByteBuffer buf = entry.read();
+                byte[] b = new byte[buf.remaining()];
+                buf.get(b);
+                visited.put(r.getNestedPath() + "!" + entry.getName(), new String(b, StandardCharsets.UTF_8));
+            };
+            try (ZipArchive archive = ZipArchive.open(new ClassPathRoot(jar), map)) {
+                List<ZipArchive> nestedArchives = archive.walk(null, name -> true, visitor);
+                Assertions.assertEquals(2, nestedArchives.size(), "Nested archives not found, might have a bug");
+                for (ZipArchive n : nestedArchives)
+                    n.walk(null, name -> true, visitor);
+            }
+            Assertions.assertEquals("stored content", visited.get("BOOT-INF/lib/stored.jar!com/app/stored.txt"),
+                    "Stored nested archive not read, map: " + map + ", might have a bug");
+            Assertions.assertEquals("deflated content", visited.get("BOOT-INF/lib/deflated.jar!com/app/deflated.txt"),
+                    "Deflated nested archive not read, map: " + map + ", might have a bug");
+        }
+
+        logger.info("Test passed");
+    }
+
+    private static Map<String, String> walk(Path jar, List<EntryNameRule> rules) {
+        return walk(new ClassPathRoot(jar), rules);
+    }
+
+    private static Map<String, String> walk(ClassPathRoot root, List<EntryNameRule> rules) {
+        Map<String, String> visited = new ConcurrentHashMap<>();
+        new ClassPathWalker(2).walk(
+                Collections.singleton(root),
+                rules,
+                name -> true,
+                (r, entry) -> {
+                    ByteBuffer buf = entry.read();
+                    byte[] b = new byte[buf.remaining()];
+                    buf.get(b);
+                    visited.put(entry.getName(), new String(b, StandardCharsets.UTF_8));
+                });
+        return visited;
+    }
+
+    private static void writeArchive(OutputStream out) throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(out);
+        zos.putNextEntry(new ZipEntry("com/app/"));
+        zos.closeEntry();
+
+        writeEntry(zos, "com/app/stored.txt", "stored content".getBytes(StandardCharsets.UTF_8), true);
+        writeEntry(zos, "com/app/deflated.txt", "deflated content".getBytes(StandardCharsets.UTF_8), false);
+        zos.putNextEntry(new ZipEntry("other/excluded.txt"));
+        zos.write("excluded".getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+        zos.finish();
+    }
+
+    private static void writeEntry(ZipOutputStream zos, String name, byte[] content, boolean stored) throws IOException {
+        ZipEntry ze = new ZipEntry(name);
+        if (stored) {
+            ze.setMethod(ZipEntry.STORED);
+            ze.setSize(content.length);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            ze.setCrc(crc.getValue());
+        }
+        zos.putNextEntry(ze);
+        zos.write(content);
+        zos.closeEntry();
+    }
+}